@@ -0,0 +1,95 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.Arrays;
+
+// One bit per pixel for the pixels of one color class of the filter image.
+// Every scanline (column x, like ObjectImage) is nWords longs, pixel y being
+// bit (y & 63) of word (y >> 6), so 64 background pixels are skipped at once.
+
+public class BinaryMask {
+
+	public int widthFrame;
+	public int heightFrame;
+
+	// Words of scanline x are bits[x * nWords .. (x + 1) * nWords - 1]
+	public int nWords;
+	public long bits[];
+
+	public BinaryMask(int widthFrame, int heightFrame) {
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+		nWords = (heightFrame + 63) >> 6;
+		bits = new long [widthFrame * nWords];
+	}
+
+	public void clear() {
+		Arrays.fill(bits, 0L);
+	}
+
+	// Clear the window [x1, x2] x [y1, y2] only
+	public void clear(int x1, int y1, int x2, int y2) {
+		int w1 = y1 >> 6;
+		int w2 = y2 >> 6;
+		for (int x = x1; x <= x2; ++x) {
+			int base = x * nWords;
+			for (int w = w1; w <= w2; ++w) {
+				long keep = 0;
+				if (w == w1) {
+					keep |= ~(-1L << y1);
+				}
+				if ((w == w2) && ((y2 & 63) != 63)) {
+					keep |= -1L << (y2 + 1);
+				}
+				bits[base + w] &= keep;
+			}
+		}
+	}
+
+	// Copy all the pixels of a mask of the same size
+	public void copyFrom(BinaryMask source) {
+		System.arraycopy(source.bits, 0, bits, 0, bits.length);
+	}
+
+	public void set(int x, int y) {
+		bits[x * nWords + (y >> 6)] |= 1L << y;
+	}
+
+	public boolean get(int x, int y) {
+		return (bits[x * nWords + (y >> 6)] & (1L << y)) != 0;
+	}
+
+	// +---------------------------------------------------------------------+
+	// | Set a pixel of dst for every factor x factor block with a pixel set |
+	// +---------------------------------------------------------------------+
+
+	// factor must be a power of two, dst must be at least the size of this
+	// mask divided by factor, rounded up. Blocks never cross a word, so every
+	// set block costs one step whatever its number of pixels in the scanline.
+	public void downsampleInto(BinaryMask dst, int factor) {
+		int shift = Integer.numberOfTrailingZeros(factor);
+		dst.clear();
+		for (int x = 0; x < widthFrame; ++x) {
+			int base = x * nWords;
+			int dstBase = (x >> shift) * dst.nWords;
+			for (int w = 0; w < nWords; ++w) {
+				long word = bits[base + w];
+				while (word != 0) {
+					int y = (w << 6) + Long.numberOfTrailingZeros(word);
+					int dy = y >> shift;
+					dst.bits[dstBase + (dy >> 6)] |= 1L << dy;
+
+					// Skip the other pixels of the block
+					int blockEnd = ((dy + 1) << shift) - (w << 6);
+					word = (blockEnd >= 64) ? 0 : word & (-1L << blockEnd);
+				}
+			}
+		}
+	}
+
+}
\ No newline at end of file
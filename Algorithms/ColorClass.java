@@ -0,0 +1,50 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+public class ColorClass {
+
+	public String name;
+
+	// Camera colors of the class, all bounds included
+	public int minRed, maxRed;
+	public int minGreen, maxGreen;
+	public int minBlue, maxBlue;
+
+	// Color of the class in the filter image
+	public int displayRed = 255;
+	public int displayGreen = 255;
+	public int displayBlue = 255;
+
+	// Size filter of the detected objects, maxX - minX and maxY - minY of a component
+	public int minWidth = 0;
+	public int minHeight = 0;
+	public int minArea = 0;
+
+	public ColorClass(String name, int minRed, int maxRed, int minGreen, int maxGreen, int minBlue, int maxBlue) {
+		this.name = name;
+		this.minRed = minRed;
+		this.maxRed = maxRed;
+		this.minGreen = minGreen;
+		this.maxGreen = maxGreen;
+		this.minBlue = minBlue;
+		this.maxBlue = maxBlue;
+	}
+
+	public boolean matches(int red, int green, int blue) {
+		return (red >= minRed) && (red <= maxRed) && (green >= minGreen) && (green <= maxGreen) && (blue >= minBlue) && (blue <= maxBlue);
+	}
+
+	// Same as matches(red, green, blue) on a pixel packed as 0xRRGGBB
+	public boolean matches(int rgb) {
+		return matches((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff);
+	}
+
+	public boolean accepts(ConnectedComponent component) {
+		return (component.maxX - component.minX >= minWidth) && (component.maxY - component.minY >= minHeight) && (component.area >= minArea);
+	}
+};
\ No newline at end of file
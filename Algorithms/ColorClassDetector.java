@@ -0,0 +1,35 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+
+import GUI.Rectangle;
+
+// Default detector of a color class: every component that passes the size
+// filter of the class is an object.
+
+public class ColorClassDetector implements Detector {
+
+	private ColorClass colorClass;
+
+	public ColorClassDetector(ColorClass colorClass) {
+		this.colorClass = colorClass;
+	}
+
+	@Override
+	public ArrayList<Rectangle> select(ArrayList<ConnectedComponent> components) {
+		ArrayList<Rectangle> ret = new ArrayList<>();
+		for (int i = 0; i < components.size(); ++i) {
+			if (colorClass.accepts(components.get(i))) {
+				ret.add(components.get(i).toRectangle());
+			}
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,362 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Connected-component labeling of every color class of the bit masks, with
+// 8-connectivity. The masks are run-length encoded and every run is a
+// provisional label; runs of the same class on adjacent scanlines are joined
+// by union-find. The statistics (bounding box, area, centroid) are set per run
+// and merged over the labels afterwards, so the work is linear in the number
+// of runs. All buffers are primitive and reused between frames.
+//
+// With a ForkJoinPool the scanlines are split into bands encoded in parallel,
+// each into its own runs. The runs of the bands are numbered one after the
+// other, so the labels are the same as for a sequential encoding. The bands
+// are then labeled in parallel by a lock-free union-find, and only the
+// scanlines at their borders are joined afterwards. Roots are always the
+// smallest label, so the result is the same as the sequential labeling, in
+// the same order.
+
+public class ComponentLabeling {
+
+	// Minimum number of scanlines of a band
+	private final int bandThreshold = 32;
+
+	private int widthFrame;
+	private int heightFrame;
+	private ForkJoinPool pool;
+
+	// Runs of the bit masks
+	private RunLengthMask runs;
+
+	// Runs of every band, band b owns the labels offset[b] + 1 .. offset[b + 1]
+	private int nBands;
+	private int bandStart[];
+	private RunLengthMask bandRuns[];
+	private int offset[];
+
+	// Coarse-to-fine labeling of the bit masks, null to label them directly
+	private PyramidLabeling pyramid;
+
+	// Union-Find over the runs, run r is label r + 1
+	private int nLabels;
+	private AtomicIntegerArray parent;
+
+	// Statistics of every label, merged into the roots
+	private int labelClass[];
+	private int minX[], minY[], maxX[], maxY[];
+	private int area[];
+	private long sumX[], sumY[];
+	private int firstX[], firstY[];
+
+	public ComponentLabeling(int widthFrame, int heightFrame) {
+		this(widthFrame, heightFrame, null);
+	}
+
+	// Bands are labeled in parallel on pool, sequentially when it is null
+	public ComponentLabeling(int widthFrame, int heightFrame, ForkJoinPool pool) {
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+		this.pool = pool;
+		runs = new RunLengthMask(widthFrame, heightFrame);
+		allocate(1024);
+
+		// A few bands per worker to balance the load
+		int maxBands = 1;
+		if (pool != null) {
+			maxBands = Math.max(1, Math.min(4 * pool.getParallelism(), widthFrame / bandThreshold));
+		}
+		bandStart = new int [maxBands + 1];
+		offset = new int [maxBands + 1];
+		bandRuns = new RunLengthMask [maxBands];
+		if (maxBands > 1) {
+			for (int b = 0; b < maxBands; ++b) {
+				bandRuns[b] = new RunLengthMask(widthFrame, heightFrame);
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		parent = new AtomicIntegerArray(capacity);
+		labelClass = new int [capacity];
+		minX = new int [capacity];
+		minY = new int [capacity];
+		maxX = new int [capacity];
+		maxY = new int [capacity];
+		area = new int [capacity];
+		sumX = new long [capacity];
+		sumY = new long [capacity];
+		firstX = new int [capacity];
+		firstY = new int [capacity];
+	}
+
+	// +------------------------------------------+
+	// | Lock-free Union-Find over all the labels |
+	// +------------------------------------------+
+
+	// Parents only ever move to smaller labels, so a stale read is still an
+	// ancestor and the halving below is safe without locks.
+	private int find(int v) {
+		while (true) {
+			int p = parent.get(v);
+			if (p == v) {
+				return v;
+			}
+			int g = parent.get(p);
+			if (g != p) {
+				parent.compareAndSet(v, p, g);
+			}
+			v = g;
+		}
+	}
+
+	// Link the larger root under the smaller one, retry if another worker got there first
+	private void union(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b) {
+				return;
+			}
+			if (a < b) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			if (parent.compareAndSet(a, a, b)) {
+				return;
+			}
+		}
+	}
+
+	// +----------------------------------------------------+
+	// | Label the runs of a run-length encoded filter mask |
+	// +----------------------------------------------------+
+
+	// Every run is a provisional label, and runs of the same class on adjacent
+	// scanlines are joined when they overlap or touch diagonally.
+	public ArrayList<ConnectedComponent> label(RunLengthMask mask) {
+		nLabels = mask.nRuns;
+		if (nLabels >= parent.length()) {
+			allocate(Math.max(nLabels + 1, 2 * parent.length()));
+		}
+
+		start(mask, 0);
+		for (int x = mask.firstLine + 1; x <= mask.lastLine; ++x) {
+			joinLines(mask, 0, mask, 0, x);
+		}
+
+		return collect();
+	}
+
+	// Every run of mask is its own label, run r is label o + r + 1
+	private void start(RunLengthMask mask, int o) {
+		for (int r = 0; r < mask.nRuns; ++r) {
+			int l = o + r + 1;
+			int x = mask.runLine[r];
+			int start = mask.runStart[r];
+			int end = mask.runEnd[r];
+			int length = end - start + 1;
+			parent.set(l, l);
+			labelClass[l] = mask.runClass[r];
+			minX[l] = x;
+			minY[l] = start;
+			maxX[l] = x;
+			maxY[l] = end;
+			area[l] = length;
+			sumX[l] = (long)(x) * length;
+			sumY[l] = (long)(start + end) * length / 2;
+			firstX[l] = x;
+			firstY[l] = start;
+		}
+	}
+
+	// Join scanline x - 1 of a (labels from oa + 1) with scanline x of b (labels from ob + 1)
+	private void joinLines(RunLengthMask a, int oa, RunLengthMask b, int ob, int x) {
+		int i = a.lineStart[x - 1];
+		int iEnd = a.lineStart[x];
+		int jEnd = b.lineStart[x + 1];
+		for (int j = b.lineStart[x]; j < jEnd; ++j) {
+			// Skip the runs of the previous scanline that end before run j
+			while ((i < iEnd) && (a.runEnd[i] + 1 < b.runStart[j])) {
+				++i;
+			}
+			for (int k = i; (k < iEnd) && (a.runStart[k] <= b.runEnd[j] + 1); ++k) {
+				if (a.runClass[k] == b.runClass[j]) {
+					union(oa + k + 1, ob + j + 1);
+				}
+			}
+		}
+	}
+
+	// +----------------------------------------------------------+
+	// | Label the bit masks of the classes, masks[c] for class c |
+	// +----------------------------------------------------------+
+
+	public ArrayList<ConnectedComponent> label(BinaryMask masks[]) {
+		if (pyramid != null) {
+			return pyramid.label(this, masks);
+		}
+		return label(masks, 0, 0, widthFrame - 1, heightFrame - 1);
+	}
+
+	// Label the bit masks through a pyramid downsampled by factor (a power of two), 1 to disable
+	public void setPyramid(int factor) {
+		if (factor > 1) {
+			pyramid = new PyramidLabeling(widthFrame, heightFrame, factor);
+		} else {
+			pyramid = null;
+		}
+	}
+
+	// Components of the window [x1, x2] x [y1, y2] only, cut at its border
+	public ArrayList<ConnectedComponent> label(BinaryMask masks[], int x1, int y1, int x2, int y2) {
+		nBands = Math.min(bandRuns.length, (x2 - x1 + 1) / bandThreshold);
+		if (nBands <= 1) {
+			runs.encode(masks, x1, y1, x2, y2);
+			return label(runs);
+		}
+
+		for (int b = 0; b <= nBands; ++b) {
+			bandStart[b] = x1 + (int)((long)(x2 - x1 + 1) * b / nBands);
+		}
+		pool.invoke(new ScanTask(masks, y1, y2, 0, nBands));
+
+		offset[0] = 0;
+		for (int b = 0; b < nBands; ++b) {
+			offset[b + 1] = offset[b] + bandRuns[b].nRuns;
+		}
+		nLabels = offset[nBands];
+		if (nLabels >= parent.length()) {
+			allocate(Math.max(nLabels + 1, 2 * parent.length()));
+		}
+		pool.invoke(new JoinTask(0, nBands));
+
+		// The first scanline of a band to the last one of the band before
+		for (int b = 1; b < nBands; ++b) {
+			joinLines(bandRuns[b - 1], offset[b - 1], bandRuns[b], offset[b], bandStart[b]);
+		}
+		return collect();
+	}
+
+	// +----------------------------------------+
+	// | Bands of scanlines labeled in parallel |
+	// +----------------------------------------+
+
+	// Encode the rows [y1, y2] of the bands [from, to)
+	private class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final BinaryMask masks[];
+		private final int y1;
+		private final int y2;
+		private final int from;
+		private final int to;
+
+		ScanTask(BinaryMask masks[], int y1, int y2, int from, int to) {
+			this.masks = masks;
+			this.y1 = y1;
+			this.y2 = y2;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				bandRuns[from].encode(masks, bandStart[from], y1, bandStart[from + 1] - 1, y2);
+				return;
+			}
+			int middle = (from + to) / 2;
+			invokeAll(new ScanTask(masks, y1, y2, from, middle), new ScanTask(masks, y1, y2, middle, to));
+		}
+	}
+
+	// Label the runs of the bands [from, to), join their scanlines and merge the labels inside the band
+	private class JoinTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+
+		JoinTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				RunLengthMask mask = bandRuns[from];
+				start(mask, offset[from]);
+				for (int x = mask.firstLine + 1; x <= mask.lastLine; ++x) {
+					joinLines(mask, offset[from], mask, offset[from], x);
+				}
+				merge(offset[from] + 1, offset[from + 1]);
+				return;
+			}
+			int middle = (from + to) / 2;
+			invokeAll(new JoinTask(from, middle), new JoinTask(middle, to));
+		}
+	}
+
+	// +--------------------------------------------------------+
+	// | Merge the statistics of the provisional labels by root |
+	// +--------------------------------------------------------+
+
+	// Merge the labels [l1, l2] into their roots. A merged label keeps an area
+	// of 0, so merging again later only moves the labels that were roots.
+	private void merge(int l1, int l2) {
+		for (int l = l2; l >= l1; --l) {
+			if (area[l] == 0) {
+				continue;
+			}
+			int r = find(l);
+			if (r == l) {
+				continue;
+			}
+			minX[r] = Math.min(minX[r], minX[l]);
+			minY[r] = Math.min(minY[r], minY[l]);
+			maxX[r] = Math.max(maxX[r], maxX[l]);
+			maxY[r] = Math.max(maxY[r], maxY[l]);
+			area[r] += area[l];
+			sumX[r] += sumX[l];
+			sumY[r] += sumY[l];
+			area[l] = 0;
+			sumX[l] = 0;
+			sumY[l] = 0;
+		}
+	}
+
+	private ArrayList<ConnectedComponent> collect() {
+		merge(1, nLabels);
+
+		// Roots in increasing order are the components in the order of their first pixel
+		ArrayList<ConnectedComponent> ret = new ArrayList<>();
+		for (int l = 1; l <= nLabels; ++l) {
+			if (parent.get(l) != l) {
+				continue;
+			}
+			ConnectedComponent component = new ConnectedComponent(labelClass[l], firstX[l], firstY[l]);
+			component.minX = minX[l];
+			component.minY = minY[l];
+			component.maxX = maxX[l];
+			component.maxY = maxY[l];
+			component.area = area[l];
+			component.sumX = sumX[l];
+			component.sumY = sumY[l];
+			ret.add(component);
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
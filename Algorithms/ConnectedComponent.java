@@ -0,0 +1,48 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import GUI.Rectangle;
+
+public class ConnectedComponent {
+
+	// Color class of the pixels
+	public int classId;
+
+	// Bounding box
+	public int minX, minY;
+	public int maxX, maxY;
+
+	// Number of pixels and sums of their coordinates
+	public int area;
+	public long sumX, sumY;
+
+	// First pixel of the component in scan order
+	public int firstX, firstY;
+
+	public ConnectedComponent(int classId, int firstX, int firstY) {
+		this.classId = classId;
+		this.firstX = firstX;
+		this.firstY = firstY;
+		minX = firstX;
+		minY = firstY;
+		maxX = firstX;
+		maxY = firstY;
+	}
+
+	public double centerX() {
+		return (double)(sumX) / area;
+	}
+
+	public double centerY() {
+		return (double)(sumY) / area;
+	}
+
+	public Rectangle toRectangle() {
+		return new Rectangle(minX, minY, maxX, maxY);
+	}
+};
\ No newline at end of file
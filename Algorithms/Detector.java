@@ -0,0 +1,21 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+
+import GUI.Rectangle;
+
+// Object detector of one color class, registered in a DetectorRegistry. It
+// receives the connected components of its class only, from the labeling
+// shared by all the classes, and returns the rectangles of its objects.
+
+public interface Detector {
+
+	public ArrayList<Rectangle> select(ArrayList<ConnectedComponent> components);
+
+}
\ No newline at end of file
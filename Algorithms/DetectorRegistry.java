@@ -0,0 +1,175 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import GUI.FrameBuffer;
+import GUI.Rectangle;
+
+// The color classes to detect and their detectors. Classes are numbered from
+// 1 in the order of registration (0 is the background), and a pixel belongs
+// to the first class that matches its color, so a catch-all class must be
+// registered last. All the classes share one classification pass into their
+// bit masks and one labeling pass, whatever their number.
+
+public class DetectorRegistry {
+
+	private int widthFrame;
+	private int heightFrame;
+
+	// Index 0 is the background and stays null
+	private ArrayList<ColorClass> classes;
+	private ArrayList<Detector> detectors;
+	private BinaryMask masks[];
+
+	// Same classes as an array, for the classification of every pixel
+	private ColorClass order[];
+
+	private ComponentLabeling labeling;
+
+	// Components of the last labeling grouped by class
+	private ArrayList<ArrayList<ConnectedComponent>> byClass;
+
+	public DetectorRegistry(int widthFrame, int heightFrame) {
+		this(widthFrame, heightFrame, null);
+	}
+
+	// The labeling runs on pool, sequentially when it is null
+	public DetectorRegistry(int widthFrame, int heightFrame, ForkJoinPool pool) {
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+
+		classes = new ArrayList<>();
+		detectors = new ArrayList<>();
+		byClass = new ArrayList<>();
+		classes.add(null);
+		detectors.add(null);
+		byClass.add(new ArrayList<>());
+		masks = new BinaryMask [1];
+		order = new ColorClass [1];
+
+		labeling = new ComponentLabeling(widthFrame, heightFrame, pool);
+	}
+
+	// +-------------------------------------------------+
+	// | Register a class, returns its id in the results |
+	// +-------------------------------------------------+
+
+	// The class is detected by its size filter
+	public int register(ColorClass colorClass) {
+		return register(colorClass, new ColorClassDetector(colorClass));
+	}
+
+	public int register(ColorClass colorClass, Detector detector) {
+		int id = classes.size();
+		classes.add(colorClass);
+		detectors.add(detector);
+		byClass.add(new ArrayList<>());
+		masks = Arrays.copyOf(masks, id + 1);
+		masks[id] = new BinaryMask(widthFrame, heightFrame);
+		order = classes.toArray(new ColorClass [id + 1]);
+		return id;
+	}
+
+	public int getClassCount() {
+		return classes.size() - 1;
+	}
+
+	public ColorClass getColorClass(int id) {
+		return classes.get(id);
+	}
+
+	// Bit mask of every class, masks[id] for class id
+	public BinaryMask[] getMasks() {
+		return masks;
+	}
+
+	public ComponentLabeling getLabeling() {
+		return labeling;
+	}
+
+	// +---------------------------------------------------------------+
+	// | Classify the pixels that differ from the background, one pass |
+	// +---------------------------------------------------------------+
+
+	public void classify(FrameBuffer camera, FrameBuffer background) {
+		classify(camera, background, 0, 0, widthFrame - 1, heightFrame - 1);
+	}
+
+	// Classify the window [x1, x2] x [y1, y2] again, the masks outside of it are kept
+	public void classify(FrameBuffer camera, FrameBuffer background, int x1, int y1, int x2, int y2) {
+		int nClasses = classes.size();
+		for (int c = 1; c < nClasses; ++c) {
+			masks[c].clear(x1, y1, x2, y2);
+		}
+
+		// Rows follow the storage of the frames, the packed pixels are compared as they are
+		int pixels[] = camera.pixels;
+		int backgroundPixels[] = background.pixels;
+		for (int y = y1; y <= y2; ++y) {
+			int row = y * camera.width;
+			for (int x = x1; x <= x2; ++x) {
+				int rgb = pixels[row + x];
+				if (rgb == backgroundPixels[row + x]) {
+					continue;
+				}
+				for (int c = 1; c < nClasses; ++c) {
+					if (order[c].matches(rgb)) {
+						masks[c].set(x, y);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	// Class of pixel (x, y) in the masks, 0 for the background
+	public int classAt(int x, int y) {
+		return classAt(masks, x, y);
+	}
+
+	// Same in a copy of the masks
+	public int classAt(BinaryMask masks[], int x, int y) {
+		for (int c = 1; c < classes.size(); ++c) {
+			if (masks[c].get(x, y)) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	// +------------------------------------------------------------+
+	// | Objects of every class from one labeling, index = class id |
+	// +------------------------------------------------------------+
+
+	public ArrayList<ArrayList<Rectangle>> select(ArrayList<ConnectedComponent> components) {
+		int nClasses = classes.size();
+		for (int c = 0; c < nClasses; ++c) {
+			byClass.get(c).clear();
+		}
+		for (int i = 0; i < components.size(); ++i) {
+			byClass.get(components.get(i).classId).add(components.get(i));
+		}
+
+		ArrayList<ArrayList<Rectangle>> ret = new ArrayList<>();
+		ret.add(new ArrayList<>());
+		for (int c = 1; c < nClasses; ++c) {
+			ret.add(detectors.get(c).select(byClass.get(c)));
+		}
+		return ret;
+	}
+
+	// Classification, labeling of the whole frame and detection of every class
+	public ArrayList<ArrayList<Rectangle>> detect(FrameBuffer camera, FrameBuffer background) {
+		classify(camera, background);
+		return select(labeling.label(masks));
+	}
+
+}
\ No newline at end of file
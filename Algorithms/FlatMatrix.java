@@ -0,0 +1,232 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+// Matrix stored as one contiguous row-major array. Every operation writes
+// into a matrix owned by the caller, so a preallocated set of matrices can
+// be reused from one frame to the next without any allocation.
+
+public class FlatMatrix {
+
+	public int nRows;
+	public int nColumns;
+	public double value[];
+
+	// +-----------------------------+
+	// | Constructor the Zero matrix |
+	// +-----------------------------+
+
+	public FlatMatrix(int nRows, int nColumns) {
+		this.nRows = nRows;
+		this.nColumns = nColumns;
+		value = new double [this.nRows * this.nColumns];
+	}
+
+	// +----------------------------+
+	// | Constructor given a Matrix |
+	// +----------------------------+
+
+	public FlatMatrix(Matrix another) {
+		this(another.nRows, another.nColumns);
+		for (int i = 0; i < nRows; ++i) {
+			for (int j = 0; j < nColumns; ++j) {
+				value[i * nColumns + j] = another.value[i][j];
+			}
+		}
+	}
+
+	public double get(int i, int j) {
+		return value[i * nColumns + j];
+	}
+
+	public void set(int i, int j, double v) {
+		value[i * nColumns + j] = v;
+	}
+
+	// +-------------------+
+	// | Zero and Identity |
+	// +-------------------+
+
+	public void setZero() {
+		for (int i = 0; i < value.length; ++i) {
+			value[i] = 0.0;
+		}
+	}
+
+	public void setIdentity() {
+		setZero();
+		for (int i = 0; i < Math.min(nRows, nColumns); ++i) {
+			value[i * nColumns + i] = 1.0;
+		}
+	}
+
+	// +------+
+	// | Copy |
+	// +------+
+
+	public void copyInto(FlatMatrix dst) {
+		System.arraycopy(value, 0, dst.value, 0, value.length);
+	}
+
+	// +-----------+
+	// | Transpose |
+	// +-----------+
+
+	public void transposeInto(FlatMatrix dst) {
+		for (int i = 0; i < nRows; ++i) {
+			for (int j = 0; j < nColumns; ++j) {
+				dst.value[j * nRows + i] = value[i * nColumns + j];
+			}
+		}
+	}
+
+	// +-----+
+	// | Add |
+	// +-----+
+
+	public void addInto(FlatMatrix another, FlatMatrix dst) {
+		for (int i = 0; i < value.length; ++i) {
+			dst.value[i] = value[i] + another.value[i];
+		}
+	}
+
+	// +----------+
+	// | Subtract |
+	// +----------+
+
+	public void subtractInto(FlatMatrix another, FlatMatrix dst) {
+		for (int i = 0; i < value.length; ++i) {
+			dst.value[i] = value[i] - another.value[i];
+		}
+	}
+
+	// +-----------------------------------------------------+
+	// | Matrix multiplication (dst must not alias an input) |
+	// +-----------------------------------------------------+
+
+	public void multiplyInto(FlatMatrix another, FlatMatrix dst) {
+		int n = another.nColumns;
+		for (int i = 0; i < nRows * n; ++i) {
+			dst.value[i] = 0.0;
+		}
+
+		// i-k-j order walks both another and dst along their rows
+		for (int i = 0; i < nRows; ++i) {
+			int row = i * nColumns;
+			int out = i * n;
+			for (int k = 0; k < nColumns; ++k) {
+				double a = value[row + k];
+				if (a == 0.0) {
+					continue;
+				}
+				int col = k * n;
+				for (int j = 0; j < n; ++j) {
+					dst.value[out + j] += a * another.value[col + j];
+				}
+			}
+		}
+	}
+
+	// +---------------------------------------------+
+	// | In-place Cholesky factorization A = L * L^T |
+	// +---------------------------------------------+
+
+	// Only the lower triangle is read and overwritten by L. Returns false,
+	// leaving the matrix partially factored, if it is not positive definite.
+	public boolean choleskyInPlace() {
+		int n = nRows;
+		for (int j = 0; j < n; ++j) {
+			int rj = j * n;
+			double d = value[rj + j];
+			for (int k = 0; k < j; ++k) {
+				d -= value[rj + k] * value[rj + k];
+			}
+
+			// Not positive definite
+			if (!(d > 1e-12)) {
+				return false;
+			}
+
+			double l = Math.sqrt(d);
+			value[rj + j] = l;
+			for (int i = j + 1; i < n; ++i) {
+				int ri = i * n;
+				double s = value[ri + j];
+				for (int k = 0; k < j; ++k) {
+					s -= value[ri + k] * value[rj + k];
+				}
+				value[ri + j] = s / l;
+			}
+		}
+		return true;
+	}
+
+	// +----------------------------------+
+	// | Solve (L * L^T) * X = B in place |
+	// +----------------------------------+
+
+	// This matrix holds L from choleskyInPlace(), X holds B on entry.
+	public void choleskySolveInPlace(FlatMatrix X) {
+		int n = nRows;
+		int m = X.nColumns;
+
+		// Forward substitution L * Y = B, row by row over all right-hand sides
+		for (int i = 0; i < n; ++i) {
+			int ri = i * n;
+			int xi = i * m;
+			for (int k = 0; k < i; ++k) {
+				double l = value[ri + k];
+				if (l == 0.0) {
+					continue;
+				}
+				int xk = k * m;
+				for (int c = 0; c < m; ++c) {
+					X.value[xi + c] -= l * X.value[xk + c];
+				}
+			}
+			double d = value[ri + i];
+			for (int c = 0; c < m; ++c) {
+				X.value[xi + c] /= d;
+			}
+		}
+
+		// Backward substitution L^T * X = Y
+		for (int i = n - 1; i >= 0; --i) {
+			int xi = i * m;
+			for (int k = i + 1; k < n; ++k) {
+				double l = value[k * n + i];
+				if (l == 0.0) {
+					continue;
+				}
+				int xk = k * m;
+				for (int c = 0; c < m; ++c) {
+					X.value[xi + c] -= l * X.value[xk + c];
+				}
+			}
+			double d = value[i * n + i];
+			for (int c = 0; c < m; ++c) {
+				X.value[xi + c] /= d;
+			}
+		}
+	}
+
+	public void print() {
+		System.out.println(toString());
+	}
+
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < nRows; ++i) {
+			for (int j = 0; j < nColumns; ++j) {
+				str.append(Double.toString(value[i * nColumns + j])).append(" ");
+			}
+			str.append("\n");
+		}
+		return str.toString();
+	}
+
+}
\ No newline at end of file
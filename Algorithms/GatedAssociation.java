@@ -0,0 +1,352 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import GUI.Coordinate;
+import GUI.Rectangle;
+
+// Association of the objects (rows) to the measurements (columns) restricted
+// to the pairs closer than the gate radius. The candidate pairs come from a
+// spatial grid over the measurements, the bipartite graph of candidates is
+// split into connected components, and every component is an independent
+// small assignment problem solved by Hungarian Matching, in parallel when
+// there are many of them.
+
+public class GatedAssociation {
+
+	// Cost of a pair outside the gate inside a dense component problem
+	private final double INF = 1e6;
+
+	// Below this number of components, solve them on the calling thread
+	private final int parallelThreshold = 64;
+
+	private double gateRadius;
+	private SpatialGrid grid;
+	private ForkJoinPool pool;
+
+	// Candidate pairs of row x are pairColumn/pairCost[pairStart[x] .. pairStart[x + 1] - 1]
+	private int nPairs;
+	private int pairStart[];
+	private int pairColumn[];
+	private double pairCost[];
+	private int candidates[];
+
+	// Union-Find over the rows followed by the columns
+	private int parent[];
+
+	// Component of every row and column, and their members grouped by component
+	private int nComponents;
+	private int componentOf[];
+	private int rowStart[];
+	private int rows[];
+	private int columnStart[];
+	private int columns[];
+
+	// Deadline of the component problems (System.nanoTime(), 0 for none)
+	private long deadline;
+	private volatile boolean optimal;
+
+	// Result
+	private int nRows;
+	private int nColumns;
+	private int rowMatch[];
+	private int nUnassignedRows;
+	private int unassignedRows[];
+
+	// Per-thread matcher and cost buffer of the component problems
+	private static class Workspace {
+		Hungarian_Matching matcher = new Hungarian_Matching();
+		double cost[][] = new double [0][0];
+	}
+	private static final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+	public GatedAssociation(double gateRadius) {
+		this(gateRadius, ForkJoinPool.commonPool());
+	}
+
+	public GatedAssociation(double gateRadius, ForkJoinPool pool) {
+		this.gateRadius = gateRadius;
+		this.pool = pool;
+		grid = new SpatialGrid(gateRadius);
+
+		pairStart = new int [1];
+		pairColumn = new int [0];
+		pairCost = new double [0];
+		candidates = new int [0];
+		parent = new int [0];
+		componentOf = new int [0];
+		rowStart = new int [1];
+		rows = new int [0];
+		columnStart = new int [1];
+		columns = new int [0];
+		rowMatch = new int [0];
+		unassignedRows = new int [0];
+	}
+
+	public double getGateRadius() {
+		return gateRadius;
+	}
+
+	// +--------------------+
+	// | Union-Find helpers |
+	// +--------------------+
+
+	private int find(int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+	private void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if (a != b) {
+			parent[Math.max(a, b)] = Math.min(a, b);
+		}
+	}
+
+	// +----------------------------------------------------------------+
+	// | Gated assignment, returns row -> column or -1 for every object |
+	// +----------------------------------------------------------------+
+
+	// The returned array is owned by this object and only valid until the next call.
+	public int[] associate(ArrayList<Coordinate> position, ArrayList<Rectangle> measure) {
+		nRows = position.size();
+		nColumns = measure.size();
+		int nNodes = nRows + nColumns;
+
+		if (rowMatch.length < nRows) {
+			rowMatch = new int [nRows];
+			unassignedRows = new int [nRows];
+			pairStart = new int [nRows + 1];
+			rowStart = new int [nRows + 1];
+			columnStart = new int [nRows + 1];
+			rows = new int [nRows];
+		}
+		if (columns.length < nColumns) {
+			candidates = new int [nColumns];
+			columns = new int [nColumns];
+		}
+		if (parent.length < nNodes) {
+			parent = new int [nNodes];
+			componentOf = new int [nNodes];
+		}
+
+		// +----------------------------------------+
+		// | Candidate pairs within the gate radius |
+		// +----------------------------------------+
+
+		grid.build(measure);
+		for (int v = 0; v < nNodes; ++v) {
+			parent[v] = v;
+		}
+
+		nPairs = 0;
+		for (int x = 0; x < nRows; ++x) {
+			pairStart[x] = nPairs;
+			int px = position.get(x).x;
+			int py = position.get(x).y;
+			int count = grid.queryRadius(px, py, gateRadius, candidates);
+			if (pairColumn.length < nPairs + count) {
+				int size = Math.max(nPairs + count, 2 * pairColumn.length);
+				pairColumn = Arrays.copyOf(pairColumn, size);
+				pairCost = Arrays.copyOf(pairCost, size);
+			}
+			for (int k = 0; k < count; ++k) {
+				int y = candidates[k];
+				Coordinate c = measure.get(y).center;
+				pairColumn[nPairs] = y;
+				pairCost[nPairs] = Math.sqrt((double)(px - c.x) * (px - c.x) + (double)(py - c.y) * (py - c.y));
+				++nPairs;
+				union(x, nRows + y);
+			}
+		}
+		pairStart[nRows] = nPairs;
+
+		// +---------------------------------------------+
+		// | Connected components of the candidate graph |
+		// +---------------------------------------------+
+
+		// Number the components that contain at least one pair
+		nComponents = 0;
+		for (int v = 0; v < nNodes; ++v) {
+			componentOf[v] = -1;
+		}
+		for (int x = 0; x < nRows; ++x) {
+			rowMatch[x] = -1;
+			if (pairStart[x + 1] > pairStart[x]) {
+				int r = find(x);
+				if (componentOf[r] == -1) {
+					componentOf[r] = nComponents++;
+				}
+				componentOf[x] = componentOf[r];
+			}
+		}
+		for (int y = 0; y < nColumns; ++y) {
+			int r = find(nRows + y);
+			componentOf[nRows + y] = (r < nRows) ? componentOf[r] : -1;
+		}
+
+		// Group the rows and the columns by component (counting sort)
+		groupBy(0, nRows, rowStart, rows);
+		groupBy(nRows, nColumns, columnStart, columns);
+
+		// +------------------------------------+
+		// | Solve the components independently |
+		// +------------------------------------+
+
+		optimal = true;
+		if ((pool != null) && (nComponents >= parallelThreshold)) {
+			pool.invoke(new SolveTask(0, nComponents));
+		} else {
+			solveRange(0, nComponents);
+		}
+
+		nUnassignedRows = 0;
+		for (int x = 0; x < nRows; ++x) {
+			if (rowMatch[x] == -1) {
+				unassignedRows[nUnassignedRows++] = x;
+			}
+		}
+
+		return rowMatch;
+	}
+
+	private void groupBy(int offset, int n, int start[], int members[]) {
+		for (int c = 0; c <= nComponents; ++c) {
+			start[c] = 0;
+		}
+		for (int k = 0; k < n; ++k) {
+			int c = componentOf[offset + k];
+			if (c != -1) {
+				++start[c + 1];
+			}
+		}
+		for (int c = 0; c < nComponents; ++c) {
+			start[c + 1] += start[c];
+		}
+		for (int k = 0; k < n; ++k) {
+			int c = componentOf[offset + k];
+			if (c != -1) {
+				members[start[c]++] = k;
+			}
+		}
+		for (int c = nComponents; c > 0; --c) {
+			start[c] = start[c - 1];
+		}
+		start[0] = 0;
+	}
+
+	// +-------------------------------------------------+
+	// | Solve the components in [from, to) of the frame |
+	// +-------------------------------------------------+
+
+	private void solveRange(int from, int to) {
+		Workspace w = workspace.get();
+
+		for (int c = from; c < to; ++c) {
+			int r1 = rowStart[c];
+			int r2 = rowStart[c + 1];
+			int c1 = columnStart[c];
+			int c2 = columnStart[c + 1];
+			int nr = r2 - r1;
+			int nc = c2 - c1;
+
+			// Most components are a single object and a single measurement
+			if ((nr == 1) && (nc == 1)) {
+				rowMatch[rows[r1]] = columns[c1];
+				continue;
+			}
+
+			if ((w.cost.length < nr) || (w.cost[0].length < nc)) {
+				int size = Math.max(Math.max(nr, nc), w.cost.length);
+				w.cost = new double [size][size];
+			}
+			double cost[][] = w.cost;
+
+			// Local index of the columns of this component
+			for (int k = c1; k < c2; ++k) {
+				componentOf[nRows + columns[k]] = k - c1;
+			}
+
+			for (int i = 0; i < nr; ++i) {
+				int x = rows[r1 + i];
+				for (int j = 0; j < nc; ++j) {
+					cost[i][j] = INF;
+				}
+				for (int k = pairStart[x]; k < pairStart[x + 1]; ++k) {
+					cost[i][componentOf[nRows + pairColumn[k]]] = pairCost[k];
+				}
+			}
+
+			w.matcher.setDeadline(deadline);
+			w.matcher.setCost(nr, nc, cost);
+			int match[] = w.matcher.solve();
+			if (!w.matcher.isOptimal()) {
+				optimal = false;
+			}
+			for (int i = 0; i < nr; ++i) {
+				int j = match[i];
+				if ((j != -1) && (cost[i][j] < INF)) {
+					rowMatch[rows[r1 + i]] = columns[c1 + j];
+				}
+			}
+		}
+	}
+
+	private class SolveTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+
+		SolveTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= parallelThreshold) {
+				solveRange(from, to);
+				return;
+			}
+			int middle = (from + to) / 2;
+			invokeAll(new SolveTask(from, middle), new SolveTask(middle, to));
+		}
+	}
+
+	// Absolute deadline in System.nanoTime() for the next associations, 0 for none
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// False when a component ran out of time and was completed greedily
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+	public int getComponentCount() {
+		return nComponents;
+	}
+
+	public int getUnassignedRowCount() {
+		return nUnassignedRows;
+	}
+
+	public int[] getUnassignedRows() {
+		return unassignedRows;
+	}
+
+}
\ No newline at end of file
@@ -10,152 +10,467 @@ import java.util.ArrayList;
 
 public class Hungarian_Matching {
 
-	private double INF = 1e9;
+	private double INF = 1e18;
 
-	private int N;
-	private int nVertices;
-	private int source;
-	private int sink;
-
-	// Maximum-Flow Minimum-Cost
+	// Size of the current problem, rectangular nRows x nColumns
+	private int nRows;
+	private int nColumns;
 	private double cost[][];
-	private int capacity[][];
-	private int flow[][];
 
-	// Bellman-Ford's algorithm with rounded queue data structure
-	private int rear;
-	private int front;
-	private int queue[];
-	private int trace[];
-	private boolean inqueue[];
-	private double d[];
+	// The algorithm below assigns every one of its n "rows" to one of m >= n
+	// "columns". When there are more rows than columns the problem is solved
+	// transposed, so no padding with dummy nodes is ever needed.
+	private boolean transposed;
+	private int n;
+	private int m;
+
+	// Shortest augmenting paths (Kuhn-Munkres with potentials, Jonker-Volgenant style).
+	// Arrays are 1-indexed, index 0 is the virtual start column.
+	// Buffers only grow, so one matcher can be reused from frame to frame.
+	private int capacity;
+	private double u[];
+	private double v[];
+	private int p[];
+	private int way[];
+	private double minv[];
+	private boolean used[];
+
+	// Warm start: keep the potentials and the matching of the previous call
+	// and only repair the rows whose assigned pair is no longer optimal
+	private boolean warmStart;
+	private boolean solved;
+	private int lastN;
+	private int lastM;
+	private boolean lastTransposed;
+	private int q[];
+	private int released[];
+	private int nReleased;
+
+	// Rows of the greedy start that are not optimal yet, and their greedy columns
+	private int pending[];
+	private int greedyColumn[];
+	private int nRepaired;
+
+	// Deadline-bounded mode
+	private long deadline;
+	private boolean optimal;
+
+	// Tolerance on the reduced cost of a matched pair
+	private final double EPS = 1e-9;
+
+	// Column matched to every row and row matched to every column, -1 if none
+	private int rowMatch[];
+	private int columnMatch[];
+
+	// Rows and columns left unassigned
+	private int nUnassignedRows;
+	private int unassignedRows[];
+	private int nUnassignedColumns;
+	private int unassignedColumns[];
+
+	public Hungarian_Matching() {
+		capacity = 0;
+	}
 
 	public Hungarian_Matching(int N, double input_cost[][]) {
-		this.N = N;
+		this();
+		setCost(N, input_cost);
+	}
+
+	// +-------------------------------------------------------+
+	// | Set a new N x N problem, reusing the existing buffers |
+	// +-------------------------------------------------------+
 
-		// Construct the flow network
-		nVertices = 2 * N + 2;
-		source = 2 * N;
-		sink = 2 * N + 1;
+	public void setCost(int N, double input_cost[][]) {
+		setCost(N, N, input_cost);
+	}
 
-		cost = new double [nVertices][nVertices];
-		capacity = new int [nVertices][nVertices];
-		flow = new int [nVertices][nVertices];
+	// +------------------------------------------------+
+	// | Set a new rectangular nRows x nColumns problem |
+	// +------------------------------------------------+
 
-		for (int i = 0; i < nVertices; ++i) {
-			for (int j = 0; j < nVertices; ++j) {
-				capacity[i][j] = 0;
+	public void setCost(int nRows, int nColumns, double input_cost[][]) {
+		this.nRows = nRows;
+		this.nColumns = nColumns;
+		this.cost = input_cost;
+
+		transposed = (nRows > nColumns);
+		n = Math.min(nRows, nColumns);
+		m = Math.max(nRows, nColumns);
+
+		if ((u == null) || (m > capacity)) {
+			capacity = Math.max(m, 2 * capacity);
+			u = new double [capacity + 1];
+			v = new double [capacity + 1];
+			p = new int [capacity + 1];
+			way = new int [capacity + 1];
+			minv = new double [capacity + 1];
+			used = new boolean [capacity + 1];
+			q = new int [capacity + 1];
+			released = new int [capacity + 1];
+			pending = new int [capacity + 1];
+			greedyColumn = new int [capacity + 1];
+			rowMatch = new int [capacity];
+			columnMatch = new int [capacity];
+			unassignedRows = new int [capacity];
+			unassignedColumns = new int [capacity];
+		}
+	}
+
+	// +--------------------------------------------------------------------+
+	// | Add row i to the matching along a shortest augmenting path, O(n*m) |
+	// +--------------------------------------------------------------------+
+
+	// Every step keeps the potentials feasible and the matched pairs tight, so
+	// past the deadline the search stops before the next step, leaves the
+	// matching as it was and returns false.
+	private boolean augment(int i) {
+		p[0] = i;
+		int j0 = 0;
+		for (int j = 0; j <= m; ++j) {
+			minv[j] = INF;
+			used[j] = false;
+		}
+
+		do {
+			if (isPastDeadline()) {
+				return false;
 			}
+			used[j0] = true;
+			int i0 = p[j0];
+			double delta = INF;
+			int j1 = 0;
+
+			// Dijkstra step over the reduced costs
+			if (!transposed) {
+				double row[] = cost[i0 - 1];
+				for (int j = 1; j <= m; ++j) {
+					if (!used[j]) {
+						double cur = row[j - 1] - u[i0] - v[j];
+						if (cur < minv[j]) {
+							minv[j] = cur;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+			} else {
+				for (int j = 1; j <= m; ++j) {
+					if (!used[j]) {
+						double cur = cost[j - 1][i0 - 1] - u[i0] - v[j];
+						if (cur < minv[j]) {
+							minv[j] = cur;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+			}
+
+			// Update the potentials
+			for (int j = 0; j <= m; ++j) {
+				if (used[j]) {
+					u[p[j]] += delta;
+					v[j] -= delta;
+				} else {
+					minv[j] -= delta;
+				}
+			}
+
+			j0 = j1;
+		} while (p[j0] != 0);
+
+		// Flip the matching along the path
+		do {
+			int j1 = way[j0];
+			p[j0] = p[j1];
+			j0 = j1;
+		} while (j0 != 0);
+		return true;
+	}
+
+	// +--------------------------------------------------------------------+
+	// | Minimum-cost assignment in O(n^2 * m), returns row -> column or -1 |
+	// +--------------------------------------------------------------------+
+
+	// min(nRows, nColumns) pairs are assigned. The returned array is owned by
+	// the matcher and only valid until the next call.
+	public int[] solve() {
+		boolean warm = warmStart && solved && (n == lastN) && (m == lastM) && (transposed == lastTransposed);
+
+		if (warm) {
+			warm = repair();
 		}
+		if (!warm) {
+			for (int j = 0; j <= m; ++j) {
+				u[j] = 0.0;
+				v[j] = 0.0;
+				p[j] = 0;
+			}
+		}
+		augmentFreeRows();
 
-		for (int i = 0; i < N; ++i) {
-			cost[source][i] = 0.0;
-			capacity[source][i] = 1;
+		solved = true;
+		lastN = n;
+		lastM = m;
+		lastTransposed = transposed;
 
-			cost[N + i][sink] = 0.0;
-			capacity[N + i][sink] = 1;
+		for (int i = 0; i < nRows; ++i) {
+			rowMatch[i] = -1;
+		}
+		for (int j = 0; j < nColumns; ++j) {
+			columnMatch[j] = -1;
+		}
+		for (int j = 1; j <= m; ++j) {
+			if (p[j] != 0) {
+				int row = transposed ? j - 1 : p[j] - 1;
+				int column = transposed ? p[j] - 1 : j - 1;
+				rowMatch[row] = column;
+				columnMatch[column] = row;
+			}
 		}
 
-		for (int i = 0; i < N; ++i) {
-			for (int j = 0; j < N; ++j) {
-				cost[i][N + j] = input_cost[i][j];
-				capacity[i][N + j] = 1;
+		nUnassignedRows = 0;
+		for (int i = 0; i < nRows; ++i) {
+			if (rowMatch[i] == -1) {
+				unassignedRows[nUnassignedRows++] = i;
+			}
+		}
+		nUnassignedColumns = 0;
+		for (int j = 0; j < nColumns; ++j) {
+			if (columnMatch[j] == -1) {
+				unassignedColumns[nUnassignedColumns++] = j;
 			}
 		}
 
-		queue = new int [nVertices];
-		trace = new int [nVertices];
-		inqueue = new boolean [nVertices];
-		d = new double [nVertices];
+		return rowMatch;
 	}
 
-	private void push_queue(int v) {
-		if (!inqueue[v]) {
-			queue[rear] = v;
-			rear = (rear + 1) % nVertices;
-			inqueue[v] = true;
+	// +------------------------------------------------------+
+	// | Warm start from the previous potentials and matching |
+	// +------------------------------------------------------+
+
+	// The column potentials v are kept. The row potentials are recomputed as
+	// u[i] = min_j (c[i][j] - v[j]), which keeps every reduced cost >= 0. A
+	// matched pair that is no longer tight is released, and its column potential
+	// goes back to 0 like any unmatched column. Raising v[j] can only lower the
+	// potentials of the rows through column j, so only that column is scanned
+	// again and only the rows whose potential dropped are checked again: the
+	// repair is one O(n * m) pass plus O(n) per released pair, and only the
+	// released rows are augmented. When more than half of the rows are released
+	// the previous solution is not worth it, and false asks for a cold start,
+	// as does the deadline: past it the cold start is only the greedy pass.
+	private boolean repair() {
+		for (int i = 1; i <= n; ++i) {
+			q[i] = 0;
+		}
+		for (int j = 1; j <= m; ++j) {
+			if (p[j] != 0) {
+				q[p[j]] = j;
+			}
 		}
-	}
 
-	private int pop_queue() {
-		int v = queue[front];
-		front = (front + 1) % nVertices;
-		inqueue[v] = false;
-		return v;
-	}
+		for (int i = 1; i <= n; ++i) {
+			if (isPastDeadline()) {
+				return false;
+			}
+			double best = INF;
+			for (int j = 1; j <= m; ++j) {
+				best = Math.min(best, costAt(i, j) - v[j]);
+			}
+			u[i] = best;
+		}
 
-	private boolean Bellman_Ford() {
-		for (int v = 0; v < nVertices; ++v) {
-			inqueue[v] = false;
-			d[v] = INF;
+		nReleased = 0;
+		int top = 0;
+		for (int i = 1; i <= n; ++i) {
+			if ((q[i] != 0) && (!isTight(i, q[i]))) {
+				released[top++] = release(i);
+			}
 		}
-		d[source] = 0.0;
-		rear = 0;
-		front = 0;
-		push_queue(source);
 
-		while (rear != front) {
-			int u = pop_queue();
-			for (int v = 0; v < nVertices; ++v) {
-				if (capacity[u][v] > flow[u][v]) {
-					int sign = 1;
-					if (flow[u][v] < 0) {
-						sign = -1;
-					}
-					if (d[v] > d[u] + sign * cost[u][v]) {
-						d[v] = d[u] + sign * cost[u][v];
-						trace[v] = u;
-						push_queue(v);
+		while (top > 0) {
+			if ((2 * nReleased > n) || isPastDeadline()) {
+				return false;
+			}
+			int j = released[--top];
+			for (int i = 1; i <= n; ++i) {
+				double c = costAt(i, j);
+				if (c < u[i]) {
+					u[i] = c;
+					if ((q[i] != 0) && (!isTight(i, q[i]))) {
+						released[top++] = release(i);
 					}
 				}
 			}
 		}
+		return 2 * nReleased <= n;
+	}
 
-		if (d[sink] == INF) {
-			return false;
-		}
-		return true;
+	// Unmatch row i, returns its column
+	private int release(int i) {
+		int j = q[i];
+		p[j] = 0;
+		v[j] = 0.0;
+		q[i] = 0;
+		++nReleased;
+		return j;
+	}
+
+	private boolean isTight(int i, int j) {
+		return costAt(i, j) - u[i] - v[j] <= EPS;
 	}
 
-	private void increase_flow() {
-		int delta = (int)(INF);
-		int v = sink;
-		while (v != source) {
-			int u = trace[v];
-			delta = Math.min(delta, capacity[u][v] - flow[u][v]);
-			v = u;
+	// +------------------------------------------------------------------------+
+	// | Start the unmatched rows greedily, then refine them while time remains |
+	// +------------------------------------------------------------------------+
+
+	// Every unmatched row first takes its cheapest free column, so a complete
+	// assignment exists after one O(n * m) pass. With u[i] = min_j (c[i][j] - v[j])
+	// a greedy pair that is tight is already optimal and is kept. The other rows
+	// are released and augmented along shortest paths, which keeps the matching
+	// optimal, as long as the deadline allows. Past it, the rows left take back
+	// their greedy column, or the cheapest one still free if it was taken, and
+	// the result is not optimal. A solve thus ends by the deadline plus the greedy
+	// pass and the fallback of the rows left, both O(n * m).
+	private void augmentFreeRows() {
+		for (int i = 1; i <= n; ++i) {
+			q[i] = 0;
 		}
-		v = sink;
-		while (v != source) {
-			int u = trace[v];
-			flow[u][v] += delta;
-			flow[v][u] -= delta;
-			v = u;
+		for (int j = 1; j <= m; ++j) {
+			if (p[j] != 0) {
+				q[p[j]] = j;
+			}
 		}
-	}
 
-	public ArrayList<Integer> findMatch() {
-		for (int i = 0; i < nVertices; ++i) {
-			for (int j = 0; j < nVertices; ++j) {
-				flow[i][j] = 0;
+		// Greedy start
+		int nPending = 0;
+		for (int i = 1; i <= n; ++i) {
+			if (q[i] != 0) {
+				continue;
+			}
+			double low = INF;
+			double best = INF;
+			int index = 0;
+			for (int j = 1; j <= m; ++j) {
+				double c = costAt(i, j);
+				low = Math.min(low, c - v[j]);
+				if ((p[j] == 0) && (c < best)) {
+					best = c;
+					index = j;
+				}
+			}
+			u[i] = low;
+			p[index] = i;
+			q[i] = index;
+			if (!isTight(i, index)) {
+				pending[nPending++] = i;
 			}
 		}
+		for (int k = 0; k < nPending; ++k) {
+			int i = pending[k];
+			greedyColumn[i] = q[i];
+			p[q[i]] = 0;
+			q[i] = 0;
+		}
 
-		while (Bellman_Ford()) {
-			increase_flow();
+		// Refinement
+		nRepaired = 0;
+		optimal = true;
+		for (int k = 0; k < nPending; ++k) {
+			int i = pending[k];
+			if ((!isPastDeadline()) && augment(i)) {
+				++nRepaired;
+				continue;
+			}
+
+			optimal = false;
+			if (p[greedyColumn[i]] == 0) {
+				p[greedyColumn[i]] = i;
+			} else {
+				greedy(i);
+			}
 		}
+	}
 
-		ArrayList<Integer> match = new ArrayList<>();
-		for (int i = 0; i < N; ++i) {
-			for (int j = 0; j < N; ++j) {
-				if (flow[i][N + j] > 0) {
-					match.add(j);
-					break;
+	private void greedy(int i) {
+		double best = INF;
+		int index = 0;
+		for (int j = 1; j <= m; ++j) {
+			if (p[j] == 0) {
+				double c = costAt(i, j);
+				if (c < best) {
+					best = c;
+					index = j;
 				}
 			}
 		}
+		p[index] = i;
+	}
+
+	private boolean isPastDeadline() {
+		return (deadline != 0) && (System.nanoTime() - deadline > 0);
+	}
+
+	private double costAt(int i, int j) {
+		return transposed ? cost[j - 1][i - 1] : cost[i - 1][j - 1];
+	}
+
+	// Reuse the previous solution when the next problem has the same shape
+	public void setWarmStart(boolean warmStart) {
+		this.warmStart = warmStart;
+		solved = false;
+	}
+
+	// Number of rows augmented by the last solve(), the others kept their previous or greedy pair
+	public int getRepairedCount() {
+		return nRepaired;
+	}
+
+	// Absolute deadline in System.nanoTime() for the next solves, 0 for none
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	// False when the last solve() ran out of time and completed greedily
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+	public ArrayList<Integer> findMatch() {
+		solve();
+
+		ArrayList<Integer> ret = new ArrayList<>();
+		for (int i = 0; i < nRows; ++i) {
+			ret.add(rowMatch[i]);
+		}
+		return ret;
+	}
+
+	public int[] getColumnMatch() {
+		return columnMatch;
+	}
+
+	public int getUnassignedRowCount() {
+		return nUnassignedRows;
+	}
+
+	public int[] getUnassignedRows() {
+		return unassignedRows;
+	}
+
+	public int getUnassignedColumnCount() {
+		return nUnassignedColumns;
+	}
 
-		return match;
+	public int[] getUnassignedColumns() {
+		return unassignedColumns;
 	}
 
 }
\ No newline at end of file
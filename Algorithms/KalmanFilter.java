@@ -17,28 +17,30 @@ public class KalmanFilter {
 	private ArrayList<Coordinate> position;
 
 	// Identity matrix
-	private Matrix I;
+	private FlatMatrix I;
 
 	// Motion model
-	private Matrix A;
+	private FlatMatrix A;
+	private FlatMatrix At;
 
 	// Motion noise
-	private Matrix R;
+	private FlatMatrix R;
 
 	// Measurement model
-	private Matrix C;
+	private FlatMatrix C;
+	private FlatMatrix Ct;
 
 	// Measurement noise
-	private Matrix Q;
+	private FlatMatrix Q;
 
 	// Prediction
-	private Matrix mu_bar;
-	private Matrix sigma_bar;
+	private FlatMatrix mu_bar;
+	private FlatMatrix sigma_bar;
 
 	// Update
-	private Matrix K;
-	private Matrix mu;
-	private Matrix sigma;
+	private FlatMatrix K;
+	private FlatMatrix mu;
+	private FlatMatrix sigma;
 
 	// Sampling period
 	private double delta;
@@ -49,74 +51,163 @@ public class KalmanFilter {
 	// Measurement noise
 	private double measurementNoise;
 
+	// One 4x4 filter per object instead of the joint 4N x 4N system
+	private boolean independent;
+
+	// Per-object state [x, y, vx, vy] and covariance (independent mode)
+	private TrackTable table;
+
+	// Assignment of the objects to the measurements, reused over the frames
+	// (warm-started from the previous frame, since the objects move little)
+	private Hungarian_Matching matcher = new Hungarian_Matching();
+	private double cost[][];
+
+	// Spatially gated association, null to cost every object against every measurement
+	private GatedAssociation gating;
+
+	// Spatial index over the measurements for the nearest-measurement lookups
+	private SpatialGrid index = new SpatialGrid(0.0);
+
+	// Nearest measurement of every object in filter_off, and the first object that took every measurement
+	private int nearestOf[] = new int [0];
+	private int takenBy[] = new int [0];
+
+	// Measurement taken by every object in filter_on
+	private int measureX[] = new int [0];
+	private int measureY[] = new int [0];
+
+	// Time budget of the association per frame in nanoseconds, 0 for none
+	private long matchingBudget;
+	private boolean matchingOptimal = true;
+
+	// Objects without a measurement of their own in the last frame
+	private int nLost;
+
+	// False while the objects are only matched to the nearest measurement (filter_off)
+	private boolean filtered;
+
+	// Preallocated workspace, so that a frame of filtering allocates nothing
+	private FlatMatrix z;
+	private FlatMatrix Cmu;
+	private FlatMatrix residual;
+	private FlatMatrix Kr;
+	private FlatMatrix AS;
+	private FlatMatrix CS;
+	private FlatMatrix S;
+	private FlatMatrix KC;
+	private FlatMatrix IKC;
+
+	// Steady-state gain: A, C, Q and R are constant, so the Riccati recursion
+	// converges and the gain of each system can be cached once it settles
+	private boolean steadyState;
+	private double steadyTolerance;
+	private FlatMatrix K_last;
+	private boolean converged;
+
 	// +-------------+
 	// | Constructor |
 	// +-------------+
 
 	public KalmanFilter(int nObjects, ArrayList<Coordinate> initial, double delta, double motionNoise, double measurementNoise) {
+		this(nObjects, initial, delta, motionNoise, measurementNoise, false);
+	}
+
+	public KalmanFilter(int nObjects, ArrayList<Coordinate> initial, double delta, double motionNoise, double measurementNoise, boolean independent) {
 		this.nObjects = nObjects;
 		this.delta = delta;
 		this.motionNoise = motionNoise;
 		this.measurementNoise = measurementNoise;
+		this.independent = independent;
 
+		// The positions are updated in place, so keep our own copies
 		position = new ArrayList<>();
 		for (int i = 0; i < initial.size(); ++i) {
-			position.add(initial.get(i));
+			position.add(new Coordinate(initial.get(i)));
 		}
 
-		// Identity matrix
-		I = new Matrix(4 * this.nObjects, 4 * this.nObjects);
-		for (int i = 0; i < I.nRows; ++i) {
-			I.value[i][i] = 1.0;
-		}
+		matcher.setWarmStart(true);
 
-		// Initialization for Motion model (velocity model)
-		A = new Matrix(4 * this.nObjects, 4 * this.nObjects);
-		for (int i = 0; i < A.nRows; ++i) {
-			A.value[i][i] = 1.0;
-		}
-		for (int i = 0; i < 2 * this.nObjects; ++i) {
-			A.value[i][2 * this.nObjects + i] = this.delta;
+		if (independent) {
+			// A, R, C and Q of the joint system are block-diagonal over the objects,
+			// so every object can be filtered by its own 4x4 system in O(1).
+			table = new TrackTable(this.nObjects, this.delta, this.motionNoise, this.measurementNoise);
+			for (int i = 0; i < this.nObjects; ++i) {
+				table.init(i, position.get(i).x, position.get(i).y, this.delta, this.delta);
+			}
+			return;
 		}
 
-		// Motion noise
-		R = new Matrix(4 * this.nObjects, 4 * this.nObjects);
-		for (int i = 0; i < R.nRows; ++i) {
-			R.value[i][i] = this.motionNoise;
-		}
-
-		// Initialization for Measurement model
-		C = new Matrix(2 * this.nObjects, 4 * this.nObjects);
-		for (int i = 0; i < C.nRows; ++i) {
-			C.value[i][i] = 1.0;
-		}
-
-		// Measurement noise
-		Q = new Matrix(2 * this.nObjects, 2 * this.nObjects);
-		for (int i = 0; i < 2 * this.nObjects; ++i) {
-			Q.value[i][i] = this.measurementNoise;
-		}
+		init_model(this.nObjects);
 
 		// Initial mu
-		mu = new Matrix(4 * this.nObjects, 1);
+		mu = new FlatMatrix(4 * this.nObjects, 1);
 		int count = 0;
 		for (int i = 0; i < position.size(); ++i) {
 			double x = position.get(i).x;
 			double y = position.get(i).y;
-			mu.value[count][0] = x;
+			mu.value[count] = x;
 			++count;
-			mu.value[count][0] = y;
+			mu.value[count] = y;
 			++count;
 		}
 		for (int i = 2 * this.nObjects; i < 4 * this.nObjects; ++i) {
-			mu.value[i][0] = this.delta;
+			mu.value[i] = this.delta;
 		}
 
 		// Initial sigma
-		sigma = new Matrix(4 * this.nObjects, 4 * this.nObjects);
-		for (int i = 0; i < sigma.nRows; ++i) {
-			sigma.value[i][i] = 1.0;
+		sigma = new FlatMatrix(4 * this.nObjects, 4 * this.nObjects);
+		sigma.setIdentity();
+	}
+
+	// +-------------------------------------------+
+	// | Model and workspace for n stacked objects |
+	// +-------------------------------------------+
+
+	private void init_model(int n) {
+		// Identity matrix
+		I = new FlatMatrix(4 * n, 4 * n);
+		I.setIdentity();
+
+		// Initialization for Motion model (velocity model)
+		A = new FlatMatrix(4 * n, 4 * n);
+		A.setIdentity();
+		for (int i = 0; i < 2 * n; ++i) {
+			A.set(i, 2 * n + i, this.delta);
+		}
+		At = new FlatMatrix(4 * n, 4 * n);
+		A.transposeInto(At);
+
+		// Motion noise
+		R = new FlatMatrix(4 * n, 4 * n);
+		for (int i = 0; i < R.nRows; ++i) {
+			R.set(i, i, this.motionNoise);
 		}
+
+		// Initialization for Measurement model
+		C = new FlatMatrix(2 * n, 4 * n);
+		C.setIdentity();
+		Ct = new FlatMatrix(4 * n, 2 * n);
+		C.transposeInto(Ct);
+
+		// Measurement noise
+		Q = new FlatMatrix(2 * n, 2 * n);
+		for (int i = 0; i < 2 * n; ++i) {
+			Q.set(i, i, this.measurementNoise);
+		}
+
+		// Workspace
+		mu_bar = new FlatMatrix(4 * n, 1);
+		sigma_bar = new FlatMatrix(4 * n, 4 * n);
+		K = new FlatMatrix(4 * n, 2 * n);
+		z = new FlatMatrix(2 * n, 1);
+		Cmu = new FlatMatrix(2 * n, 1);
+		residual = new FlatMatrix(2 * n, 1);
+		Kr = new FlatMatrix(4 * n, 1);
+		AS = new FlatMatrix(4 * n, 4 * n);
+		CS = new FlatMatrix(2 * n, 4 * n);
+		S = new FlatMatrix(2 * n, 2 * n);
+		KC = new FlatMatrix(4 * n, 4 * n);
+		IKC = new FlatMatrix(4 * n, 4 * n);
 	}
 
 	// +--------------------+
@@ -136,124 +227,382 @@ public class KalmanFilter {
 	// +---------------+
 
 	public ArrayList<Coordinate> filter_on(ArrayList<Rectangle> measure) {
-		// Initialize the cost matrix for Hungarian Matching Algorithm
 		int nx = position.size();
 		int ny = measure.size();
-		int N = Math.max(nx, ny);
 
-		double cost[][] = new double [N][N];
-		double INF = 1e6;
-		for (int x = 0; x < N; ++x) {
-			for (int y = 0; y < N; ++y) {
-				cost[x][y] = INF;
+		int match[];
+		int unassigned[];
+		int nUnassigned;
+
+		long deadline = 0;
+		if (matchingBudget > 0) {
+			deadline = System.nanoTime() + matchingBudget;
+		}
+
+		if (gating != null) {
+			// +----------------------------------------------------+
+			// | Gated association, one small problem per component |
+			// +----------------------------------------------------+
+
+			gating.setDeadline(deadline);
+			match = gating.associate(position, measure);
+			unassigned = gating.getUnassignedRows();
+			nUnassigned = gating.getUnassignedRowCount();
+			matchingOptimal = gating.isOptimal();
+		} else {
+			// Initialize the rectangular cost matrix for Hungarian Matching Algorithm
+			int rows = (cost == null) ? 0 : cost.length;
+			int columns = (rows == 0) ? 0 : cost[0].length;
+			if ((nx > rows) || (ny > columns)) {
+				cost = new double [Math.max(nx, rows)][Math.max(ny, columns)];
 			}
+
+			for (int x = 0; x < nx; ++x) {
+				for (int y = 0; y < ny; ++y) {
+					cost[x][y] = Euclidean(position.get(x), measure.get(y));
+				}
+			}
+
+			// +----------------------------------------------------------+
+			// | Hungarian Matching Algorithm - Shortest Augmenting Paths |
+			// +----------------------------------------------------------+
+
+			matcher.setDeadline(deadline);
+			matcher.setCost(nx, ny, cost);
+			match = matcher.solve();
+			unassigned = matcher.getUnassignedRows();
+			nUnassigned = matcher.getUnassignedRowCount();
+			matchingOptimal = matcher.isOptimal();
 		}
 
+		nLost = nUnassigned;
+		filtered = true;
+
+		if (measureX.length < nx) {
+			measureX = new int [nx];
+			measureY = new int [nx];
+		}
 		for (int x = 0; x < nx; ++x) {
-			for (int y = 0; y < ny; ++y) {
-				cost[x][y] = Euclidean(position.get(x), measure.get(y));
+			int y = match[x];
+			if (y != -1) {
+				measureX[x] = measure.get(y).center.x;
+				measureY[x] = measure.get(y).center.y;
 			}
 		}
 
-		// +----------------------------------------------------------+
-		// | Hungarian Matching Algorithm - Maximum Flow Minimum Cost |
-		// +----------------------------------------------------------+
+		// Unassigned objects (fewer measurements, or none in the gate) take the nearest measurement
+		if (nUnassigned > 0) {
+			index.build(measure);
+		}
+		for (int k = 0; k < nUnassigned; ++k) {
+			int x = unassigned[k];
+			int j = index.nearest(position.get(x).x, position.get(x).y);
+			if (j == -1) {
+				measureX[x] = position.get(x).x;
+				measureY[x] = position.get(x).y;
+			} else {
+				measureX[x] = measure.get(j).center.x;
+				measureY[x] = measure.get(j).center.y;
+			}
+		}
 
-		Hungarian_Matching hm = new Hungarian_Matching(N, cost);
-		ArrayList<Integer> match = hm.findMatch();
+		if (independent) {
+			for (int i = 0; i < nObjects; ++i) {
+				table.zx[i] = measureX[i];
+				table.zy[i] = measureY[i];
+			}
+			table.predictUpdate();
 
-		// Process the case when fewer measurements than the number of objects
-		ArrayList<Coordinate> new_position = new ArrayList<>();
-		for (int x = 0; x < nx; ++x) {
-			int y = match.get(x);
-			if (y < ny) {
-				new_position.add(measure.get(y).center);
-			} else {
-				double MIN = 1e9;
-				int index = -1;
-				for (int j = 0; j < ny; ++j) {
-					double distance = cost[x][j];
-					if (distance < MIN) {
-						MIN = distance;
-						index = j;
-					}
-				}
-				if (index == -1) {
-					new_position.add(position.get(x));
-				} else {
-					new_position.add(measure.get(index).center);
-				}
+			// Update the position based on the new mean
+			for (int i = 0; i < nObjects; ++i) {
+				position.get(i).x = (int)(table.x[i]);
+				position.get(i).y = (int)(table.y[i]);
+			}
+			return position;
+		}
+
+		// New measurement
+		for (int i = 0; i < nx; ++i) {
+			z.value[2 * i] = measureX[i];
+			z.value[2 * i + 1] = measureY[i];
+		}
+
+		predict_update(mu, sigma);
+
+		// Update the position based on the new mean
+		for (int i = 0; i < position.size(); ++i) {
+			position.get(i).x = (int)(mu.value[2 * i]);
+			position.get(i).y = (int)(mu.value[2 * i + 1]);
+		}
+
+		return position;
+	}
+
+	// +----------------------------------------------------+
+	// | Kalman Filter - prediction only, no detection made |
+	// +----------------------------------------------------+
+
+	// The objects follow their velocities and the covariance grows. No object
+	// counts as lost, since none was looked for in this frame.
+	public ArrayList<Coordinate> predict_on() {
+		nLost = 0;
+		filtered = true;
+
+		if (independent) {
+			table.predict();
+			for (int i = 0; i < nObjects; ++i) {
+				position.get(i).x = (int)(table.x[i]);
+				position.get(i).y = (int)(table.y[i]);
 			}
+			return position;
+		}
+
+		A.multiplyInto(mu, mu_bar);
+		mu_bar.copyInto(mu);
+		A.multiplyInto(sigma, AS);
+		AS.multiplyInto(At, sigma_bar);
+		sigma_bar.addInto(R, sigma);
+
+		// The cached gain no longer holds for the grown covariance
+		converged = false;
+
+		for (int i = 0; i < position.size(); ++i) {
+			position.get(i).x = (int)(mu.value[2 * i]);
+			position.get(i).y = (int)(mu.value[2 * i + 1]);
 		}
+		return position;
+	}
+
+	// +------------------------------------------------+
+	// | Kalman Filter - prediction and update in place |
+	// +------------------------------------------------+
 
+	// The measurement is taken from z; only the preallocated buffers are used.
+	private void predict_update(FlatMatrix mu, FlatMatrix sigma) {
 		// +----------------------------+
 		// | Kalman Filter - Prediction |
 		// +----------------------------+
 
-		mu_bar = A.multiply(mu);
-		sigma_bar = (A.multiply(sigma.multiply(A.transpose()))).add(R);
+		A.multiplyInto(mu, mu_bar);
+
+		// Converged: sigma stays at its steady state, only the mean is updated
+		if (steadyState && converged) {
+			update_mean(K_last, mu);
+			return;
+		}
+
+		A.multiplyInto(sigma, AS);
+		AS.multiplyInto(At, sigma_bar);
+		sigma_bar.addInto(R, sigma_bar);
 
 		// +------------------------+
 		// | Kalman Filter - Update |
 		// +------------------------+
 
-		// Kalman gain
-		Matrix inv = ((C.multiply(sigma_bar).multiply(C.transpose())).add(Q)).inverse();
-		K = sigma_bar.multiply(C.transpose()).multiply(inv);
-
-		// New measurement 
-		Matrix z = new Matrix(2 * nObjects, 1);
-		int count = 0;
-		for (int i = 0; i < new_position.size(); ++i) {
-			double x = new_position.get(i).x;
-			double y = new_position.get(i).y;
-			z.value[count][0] = x;
-			++count;
-			z.value[count][0] = y;
-			++count;
+		// Kalman gain K = sigma_bar * C^T * S^(-1) with S = C * sigma_bar * C^T + Q.
+		// S and sigma_bar are symmetric, so K^T = S^(-1) * (C * sigma_bar) is
+		// obtained by a Cholesky solve of S without ever forming its inverse.
+		C.multiplyInto(sigma_bar, CS);
+		CS.multiplyInto(Ct, S);
+		S.addInto(Q, S);
+		if (!S.choleskyInPlace()) {
+			// Keep the prediction when the innovation covariance is not positive definite
+			mu_bar.copyInto(mu);
+			sigma_bar.copyInto(sigma);
+			return;
 		}
+		S.choleskySolveInPlace(CS);
+		CS.transposeInto(K);
 
 		// Update the mean
-		mu = mu_bar.add(K.multiply(z.subtract(C.multiply(mu_bar))));
+		update_mean(K, mu);
 
 		// Update the variance
-		sigma = (I.subtract(K.multiply(C))).multiply(sigma_bar);
+		K.multiplyInto(C, KC);
+		I.subtractInto(KC, IKC);
+		IKC.multiplyInto(sigma_bar, sigma);
+
+		// Switch to the cached gain once it stops changing
+		if (steadyState) {
+			double change = 0.0;
+			for (int i = 0; i < K.value.length; ++i) {
+				change = Math.max(change, Math.abs(K.value[i] - K_last.value[i]));
+			}
+			K.copyInto(K_last);
+			if (change < steadyTolerance) {
+				converged = true;
+			}
+		}
+	}
 
-		// Update the position based on the new mean
-		for (int i = 0; i < position.size(); ++i) {
-			int x = (int)(mu.value[2 * i][0]);
-			int y = (int)(mu.value[2 * i + 1][0]);
-			position.set(i, new Coordinate(x, y));
+	// mu = mu_bar + gain * (z - C * mu_bar)
+	private void update_mean(FlatMatrix gain, FlatMatrix mu) {
+		C.multiplyInto(mu_bar, Cmu);
+		z.subtractInto(Cmu, residual);
+		gain.multiplyInto(residual, Kr);
+		mu_bar.addInto(Kr, mu);
+	}
+
+	// +-----------------------------------------------------------+
+	// | Only associate the pairs closer than radius, 0 to disable |
+	// +-----------------------------------------------------------+
+
+	public void setGating(double radius) {
+		if (radius > 0.0) {
+			gating = new GatedAssociation(radius);
+		} else {
+			gating = null;
 		}
+	}
 
-		return position;
+	// +------------------------------------------------------+
+	// | Time budget of the association per frame, 0 for none |
+	// +------------------------------------------------------+
+
+	// The association starts from a greedy assignment and refines it toward the
+	// optimum while the budget lasts. The budget also runs while the costs are
+	// computed, but these and the greedy pass are always completed, so a frame
+	// takes at most the budget plus a few passes over the nx * ny costs (with
+	// gating, over the pairs inside the gates only).
+	public void setMatchingBudget(long nanos) {
+		matchingBudget = nanos;
+	}
+
+	// False when the association of the last frame was completed greedily
+	public boolean isMatchingOptimal() {
+		return matchingOptimal;
+	}
+
+	// +----------------------------------+
+	// | Steady-state Kalman gain caching |
+	// +----------------------------------+
+
+	// Once the gain of a system changes by less than tolerance (max-abs) between
+	// two frames, its gain and covariance are frozen; a frame then costs only a
+	// prediction, a residual and one matrix-vector update.
+	public void enableSteadyState(double tolerance) {
+		if (independent) {
+			table.enableSteadyState(tolerance);
+			return;
+		}
+		steadyState = true;
+		steadyTolerance = tolerance;
+		K_last = new FlatMatrix(K.nRows, K.nColumns);
+		converged = false;
+	}
+
+	public boolean isSteadyState() {
+		if (independent) {
+			return table.isSteadyState();
+		}
+		return steadyState && converged;
+	}
+
+	// +--------------------------------------------------------------+
+	// | Predicted position and spread of object i for the next frame |
+	// +--------------------------------------------------------------+
+
+	public int getObjectCount() {
+		return nObjects;
+	}
+
+	public double getPredictedX(int i) {
+		if (!filtered) {
+			return position.get(i).x;
+		}
+		if (independent) {
+			return table.x[i] + delta * table.vx[i];
+		}
+		return mu.value[2 * i] + delta * mu.value[2 * nObjects + 2 * i];
+	}
+
+	public double getPredictedY(int i) {
+		if (!filtered) {
+			return position.get(i).y;
+		}
+		if (independent) {
+			return table.y[i] + delta * table.vy[i];
+		}
+		return mu.value[2 * i + 1] + delta * mu.value[2 * nObjects + 2 * i + 1];
+	}
+
+	// Standard deviation of the predicted position, the larger of x and y, 0 without filtering
+	public double getPredictedSpread(int i) {
+		if (!filtered) {
+			return 0.0;
+		}
+
+		// A * sigma * A^T + R restricted to x and y
+		double d = delta;
+		double varianceX, varianceY;
+		if (independent) {
+			varianceX = table.pxx[i] + 2.0 * d * table.pxu[i] + d * d * table.puu[i] + motionNoise;
+			varianceY = table.pyy[i] + 2.0 * d * table.pyv[i] + d * d * table.pvv[i] + motionNoise;
+		} else {
+			int x = 2 * i;
+			int u = 2 * nObjects + 2 * i;
+			varianceX = sigma.get(x, x) + 2.0 * d * sigma.get(x, u) + d * d * sigma.get(u, u) + motionNoise;
+			varianceY = sigma.get(x + 1, x + 1) + 2.0 * d * sigma.get(x + 1, u + 1) + d * d * sigma.get(u + 1, u + 1) + motionNoise;
+		}
+		return Math.sqrt(Math.max(0.0, Math.max(varianceX, varianceY)));
+	}
+
+	// Objects that had no measurement of their own in the last frame
+	public int getLostCount() {
+		return nLost;
 	}
 
 	// +-----------------------------------------------------------------+
 	// | There is no Kalman Filter, just matching to the nearest measure |
 	// +-----------------------------------------------------------------+
 
+	// Without a detection the objects stay where they are
+	public ArrayList<Coordinate> predict_off() {
+		nLost = 0;
+		filtered = false;
+		return position;
+	}
+
 	public ArrayList<Coordinate> filter_off(ArrayList<Rectangle> measure) {
-		ArrayList<Coordinate> new_position = new ArrayList<>();
+		index.build(measure);
+		filtered = false;
+
+		if (takenBy.length < measure.size()) {
+			takenBy = new int [measure.size()];
+		}
+		if (nearestOf.length < position.size()) {
+			nearestOf = new int [position.size()];
+		}
+		for (int j = 0; j < measure.size(); ++j) {
+			takenBy[j] = -1;
+		}
+
+		// An object whose nearest measurement is already taken by another one has
+		// none of its own, unless both were already on the same measurement in the
+		// last frame: objects merged into one blob then stay together, and are not
+		// lost again on every frame.
+		nLost = 0;
 		for (int i = 0; i < position.size(); ++i) {
-			double MIN = 1e9;
-			int index = -1;
-			for (int j = 0; j < measure.size(); ++j) {
-				double distance = Euclidean(position.get(i), measure.get(j));
-				if (distance < MIN) {
-					MIN = distance;
-					index = j;
-				}
-			}
-			if (index == -1) {
-				new_position.add(position.get(i));
+			int j = index.nearest(position.get(i).x, position.get(i).y);
+			nearestOf[i] = j;
+			if (j == -1) {
+				++nLost;
+			} else if (takenBy[j] == -1) {
+				takenBy[j] = i;
 			} else {
-				new_position.add(measure.get(index).center);
+				Coordinate other = position.get(takenBy[j]);
+				if ((other.x != position.get(i).x) || (other.y != position.get(i).y)) {
+					++nLost;
+				}
 			}
 		}
 
 		for (int i = 0; i < position.size(); ++i) {
-			position.set(i, new_position.get(i));
+			int j = nearestOf[i];
+			if (j != -1) {
+				position.get(i).x = measure.get(j).center.x;
+				position.get(i).y = measure.get(j).center.y;
+			}
 		}
 
 		return position;
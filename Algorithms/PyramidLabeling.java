@@ -0,0 +1,112 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+
+// Coarse-to-fine labeling of the bit masks. The masks are downsampled by a
+// power of two (a coarse pixel is set when any pixel of its block is set) and
+// labeled at the coarse resolution. Every fine component lies inside the
+// blocks of one coarse component of its class, so only the bounding box of
+// every coarse component, expanded by one pixel, is labeled again at full
+// resolution. Inside such a window the components cut by its border belong
+// to another coarse component and are dropped; the others are exact. The
+// result is the same as labeling the whole masks, in the same order.
+
+public class PyramidLabeling {
+
+	private int factor;
+	private int widthFrame;
+	private int heightFrame;
+
+	// Coarse masks and their labeling
+	private BinaryMask coarse[];
+	private ComponentLabeling coarseLabeling;
+
+	// factor is rounded down to a power of two
+	public PyramidLabeling(int widthFrame, int heightFrame, int factor) {
+		this.factor = Integer.highestOneBit(Math.max(1, factor));
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+
+		int coarseWidth = (widthFrame + this.factor - 1) / this.factor;
+		int coarseHeight = (heightFrame + this.factor - 1) / this.factor;
+		coarseLabeling = new ComponentLabeling(coarseWidth, coarseHeight);
+		coarse = new BinaryMask [0];
+	}
+
+	public int getFactor() {
+		return factor;
+	}
+
+	// +----------------------------------------------------------------+
+	// | Label the masks of the classes with fine, masks[c] for class c |
+	// +----------------------------------------------------------------+
+
+	public ArrayList<ConnectedComponent> label(ComponentLabeling fine, BinaryMask masks[]) {
+		if (coarse.length != masks.length) {
+			coarse = new BinaryMask [masks.length];
+		}
+		for (int c = 0; c < masks.length; ++c) {
+			if (masks[c] == null) {
+				coarse[c] = null;
+				continue;
+			}
+			if (coarse[c] == null) {
+				coarse[c] = new BinaryMask((widthFrame + factor - 1) / factor, (heightFrame + factor - 1) / factor);
+			}
+			masks[c].downsampleInto(coarse[c], factor);
+		}
+
+		// A block with pixels of two classes is set in both coarse masks, so the
+		// coarse runs of a scanline may overlap, while the labeling expects them
+		// disjoint. It can then join coarse components of a class that do not
+		// touch. That only makes a window larger: the fine masks are disjoint and
+		// the fine labeling in the window is exact.
+		ArrayList<ConnectedComponent> candidates = coarseLabeling.label(coarse);
+
+		ArrayList<ConnectedComponent> ret = new ArrayList<>();
+		for (int k = 0; k < candidates.size(); ++k) {
+			ConnectedComponent candidate = candidates.get(k);
+			int x1 = Math.max(0, candidate.minX * factor - 1);
+			int y1 = Math.max(0, candidate.minY * factor - 1);
+			int x2 = Math.min(widthFrame - 1, (candidate.maxX + 1) * factor);
+			int y2 = Math.min(heightFrame - 1, (candidate.maxY + 1) * factor);
+
+			ArrayList<ConnectedComponent> components = fine.label(masks, x1, y1, x2, y2);
+			for (int i = 0; i < components.size(); ++i) {
+				ConnectedComponent component = components.get(i);
+				if (component.classId != candidate.classId) {
+					continue;
+				}
+				if (((component.minX == x1) && (x1 > 0)) || ((component.maxX == x2) && (x2 < widthFrame - 1))) {
+					continue;
+				}
+				if (((component.minY == y1) && (y1 > 0)) || ((component.maxY == y2) && (y2 < heightFrame - 1))) {
+					continue;
+				}
+				ret.add(component);
+			}
+		}
+
+		// Same order as a full scan, and every component only once (the windows may overlap)
+		ret.sort((a, b) -> (a.firstX != b.firstX) ? Integer.compare(a.firstX, b.firstX) : Integer.compare(a.firstY, b.firstY));
+		int n = 0;
+		for (int i = 0; i < ret.size(); ++i) {
+			ConnectedComponent component = ret.get(i);
+			if ((n > 0) && (ret.get(n - 1).firstX == component.firstX) && (ret.get(n - 1).firstY == component.firstY)) {
+				continue;
+			}
+			ret.set(n++, component);
+		}
+		while (ret.size() > n) {
+			ret.remove(ret.size() - 1);
+		}
+		return ret;
+	}
+
+}
\ No newline at end of file
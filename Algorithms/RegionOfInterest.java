@@ -0,0 +1,274 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Detection restricted to search windows around the positions predicted by
+// the Kalman Filters. Every object gets a window of its own size, enlarged by
+// a margin and three standard deviations of its predicted position, and the
+// overlapping windows are merged. Only the windows are labeled, and a window
+// grows on the sides where a component touches its border (the object may go
+// on outside of it). The whole frame is labeled every fullScanPeriod frames,
+// when an object was lost, when the windows still cut a component after
+// maxGrowth passes, and when the windows hold fewer components than they did
+// in the last frame (an object may have left its window), so that new and
+// fast objects are still found.
+
+public class RegionOfInterest {
+
+	// Number of standard deviations of the predicted position covered by a window
+	private final double nSigmas = 3.0;
+
+	// Above this fraction of the frame the windows are not worth it
+	private final double maxCoverage = 0.5;
+
+	// Times the windows are grown around the components cut by their border before a full scan
+	private final int maxGrowth = 3;
+
+	private int widthFrame;
+	private int heightFrame;
+	private int fullScanPeriod;
+
+	// Frames since the last full scan, and whether the next frame needs one
+	private int nFrames;
+	private boolean fullScanRequested;
+	private boolean fullScan;
+
+	// Components inside the windows in the last frame
+	private int nComponents;
+
+	// Windows [x1, x2] x [y1, y2]
+	private int nWindows;
+	private int wx1[];
+	private int wy1[];
+	private int wx2[];
+	private int wy2[];
+
+	public RegionOfInterest(int widthFrame, int heightFrame, int fullScanPeriod) {
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+		this.fullScanPeriod = fullScanPeriod;
+		wx1 = new int [16];
+		wy1 = new int [16];
+		wx2 = new int [16];
+		wy2 = new int [16];
+		fullScanRequested = true;
+	}
+
+	// +-----------------------------------------------------------+
+	// | Windows around the predicted positions of all the objects |
+	// +-----------------------------------------------------------+
+
+	// halfWidth and halfHeight are half the size of the objects plus the
+	// distance they may move away from the prediction in one frame.
+	public void addTracks(KalmanFilter filter, int halfWidth, int halfHeight) {
+		if (filter.getLostCount() > 0) {
+			fullScanRequested = true;
+		}
+
+		for (int i = 0; i < filter.getObjectCount(); ++i) {
+			double x = filter.getPredictedX(i);
+			double y = filter.getPredictedY(i);
+			double spread = nSigmas * filter.getPredictedSpread(i);
+			addWindow((int)Math.floor(x - halfWidth - spread), (int)Math.floor(y - halfHeight - spread), (int)Math.ceil(x + halfWidth + spread), (int)Math.ceil(y + halfHeight + spread));
+		}
+	}
+
+	private void addWindow(int x1, int y1, int x2, int y2) {
+		x1 = Math.max(0, x1);
+		y1 = Math.max(0, y1);
+		x2 = Math.min(widthFrame - 1, x2);
+		y2 = Math.min(heightFrame - 1, y2);
+		if ((x1 > x2) || (y1 > y2)) {
+			return;
+		}
+
+		if (nWindows == wx1.length) {
+			wx1 = Arrays.copyOf(wx1, 2 * nWindows);
+			wy1 = Arrays.copyOf(wy1, 2 * nWindows);
+			wx2 = Arrays.copyOf(wx2, 2 * nWindows);
+			wy2 = Arrays.copyOf(wy2, 2 * nWindows);
+		}
+		wx1[nWindows] = x1;
+		wy1[nWindows] = y1;
+		wx2[nWindows] = x2;
+		wy2[nWindows] = y2;
+		++nWindows;
+	}
+
+	// +--------------------------------------------------------------+
+	// | Merge the windows that overlap or touch into their union box |
+	// +--------------------------------------------------------------+
+
+	// A component never crosses two disjoint windows, so every component is
+	// found whole in one window or touches a window border.
+	private void mergeWindows() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < nWindows; ++i) {
+				for (int j = i + 1; j < nWindows; ++j) {
+					if ((wx1[j] > wx2[i] + 1) || (wx1[i] > wx2[j] + 1) || (wy1[j] > wy2[i] + 1) || (wy1[i] > wy2[j] + 1)) {
+						continue;
+					}
+					wx1[i] = Math.min(wx1[i], wx1[j]);
+					wy1[i] = Math.min(wy1[i], wy1[j]);
+					wx2[i] = Math.max(wx2[i], wx2[j]);
+					wy2[i] = Math.max(wy2[i], wy2[j]);
+
+					--nWindows;
+					wx1[j] = wx1[nWindows];
+					wy1[j] = wy1[nWindows];
+					wx2[j] = wx2[nWindows];
+					wy2[j] = wy2[nWindows];
+					--j;
+					changed = true;
+				}
+			}
+		}
+	}
+
+	// +-----------------------------------------------------+
+	// | Label the windows of this frame, or the whole frame |
+	// +-----------------------------------------------------+
+
+	// The windows are consumed, addTracks() must be called again before every frame.
+	public ArrayList<ConnectedComponent> label(ComponentLabeling labeling, BinaryMask masks[]) {
+		mergeWindows();
+
+		long area = 0;
+		for (int k = 0; k < nWindows; ++k) {
+			area += (long)(wx2[k] - wx1[k] + 1) * (wy2[k] - wy1[k] + 1);
+		}
+
+		++nFrames;
+		fullScan = fullScanRequested || (nFrames >= fullScanPeriod) || (area > maxCoverage * widthFrame * heightFrame);
+
+		// Components inside the windows of the objects, before they are grown
+		int nInside = -1;
+
+		ArrayList<ConnectedComponent> ret = new ArrayList<>();
+		for (int pass = 0; !fullScan; ++pass) {
+			ret.clear();
+			boolean grown = false;
+			for (int k = 0; k < nWindows; ++k) {
+				ArrayList<ConnectedComponent> components = labeling.label(masks, wx1[k], wy1[k], wx2[k], wy2[k]);
+
+				// A component is cut at the border, so every side it touches moves out by the size of the window
+				int width = wx2[k] - wx1[k] + 1;
+				int height = wy2[k] - wy1[k] + 1;
+				int x1 = wx1[k], y1 = wy1[k], x2 = wx2[k], y2 = wy2[k];
+				for (int i = 0; i < components.size(); ++i) {
+					ConnectedComponent component = components.get(i);
+					if (!touchesBorder(component, k)) {
+						ret.add(component);
+						continue;
+					}
+					if (component.minX == wx1[k]) {
+						x1 = Math.max(0, wx1[k] - width);
+					}
+					if (component.minY == wy1[k]) {
+						y1 = Math.max(0, wy1[k] - height);
+					}
+					if (component.maxX == wx2[k]) {
+						x2 = Math.min(widthFrame - 1, wx2[k] + width);
+					}
+					if (component.maxY == wy2[k]) {
+						y2 = Math.min(heightFrame - 1, wy2[k] + height);
+					}
+					grown = true;
+				}
+				wx1[k] = x1;
+				wy1[k] = y1;
+				wx2[k] = x2;
+				wy2[k] = y2;
+			}
+			if (pass == 0) {
+				nInside = ret.size();
+				fullScan = (nInside < nComponents);
+			}
+			if (!grown) {
+				break;
+			}
+
+			// Grown windows may overlap, label them again
+			mergeWindows();
+			area = 0;
+			for (int k = 0; k < nWindows; ++k) {
+				area += (long)(wx2[k] - wx1[k] + 1) * (wy2[k] - wy1[k] + 1);
+			}
+			if ((pass + 1 == maxGrowth) || (area > maxCoverage * widthFrame * heightFrame)) {
+				fullScan = true;
+			}
+		}
+
+		if (fullScan) {
+			nFrames = 0;
+			fullScanRequested = false;
+			ret = labeling.label(masks);
+
+			// Only the components inside the windows compare with the next windows
+			if (nInside == -1) {
+				nInside = 0;
+				for (int i = 0; i < ret.size(); ++i) {
+					if (insideWindow(ret.get(i))) {
+						++nInside;
+					}
+				}
+			}
+			nComponents = nInside;
+			nWindows = 0;
+			return ret;
+		}
+		nComponents = nInside;
+		nWindows = 0;
+
+		// Same order as a full scan, by the first pixel of every component
+		ret.sort((a, b) -> (a.firstX != b.firstX) ? Integer.compare(a.firstX, b.firstX) : Integer.compare(a.firstY, b.firstY));
+		return ret;
+	}
+
+	// Inside a window and not cut by its border
+	private boolean insideWindow(ConnectedComponent component) {
+		for (int k = 0; k < nWindows; ++k) {
+			if ((component.minX >= wx1[k]) && (component.minY >= wy1[k]) && (component.maxX <= wx2[k]) && (component.maxY <= wy2[k]) && (!touchesBorder(component, k))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// A border of the window that is not a border of the frame
+	private boolean touchesBorder(ConnectedComponent component, int k) {
+		if ((component.minX == wx1[k]) && (wx1[k] > 0)) {
+			return true;
+		}
+		if ((component.minY == wy1[k]) && (wy1[k] > 0)) {
+			return true;
+		}
+		if ((component.maxX == wx2[k]) && (wx2[k] < widthFrame - 1)) {
+			return true;
+		}
+		if ((component.maxY == wy2[k]) && (wy2[k] < heightFrame - 1)) {
+			return true;
+		}
+		return false;
+	}
+
+	// Request a full scan of the next frame
+	public void requestFullScan() {
+		fullScanRequested = true;
+	}
+
+	// True when the last label() scanned the whole frame
+	public boolean isFullScan() {
+		return fullScan;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.Arrays;
+
+// Run-length encoding of the color classes of the filter image. Every
+// scanline (column x of ObjectImage) is a sorted list of runs [start, end] of
+// one class, the background is not stored. The filter image is mostly
+// background with a few solid blobs, so there are far fewer runs than pixels.
+
+public class RunLengthMask {
+
+	public int widthFrame;
+	public int heightFrame;
+
+	// Runs of scanline x are lineStart[x] .. lineStart[x + 1] - 1, for the
+	// scanlines firstLine .. lastLine, the others have no runs
+	public int firstLine;
+	public int lastLine;
+	public int nRuns;
+	public int lineStart[];
+	public int runLine[];
+	public int runStart[];
+	public int runEnd[];
+	public int runClass[];
+
+	// Scanlines up to which lineStart is already set
+	private int nLines;
+
+	public RunLengthMask(int widthFrame, int heightFrame) {
+		this.widthFrame = widthFrame;
+		this.heightFrame = heightFrame;
+		lineStart = new int [widthFrame + 1];
+		runLine = new int [1024];
+		runStart = new int [1024];
+		runEnd = new int [1024];
+		runClass = new int [1024];
+		clear();
+	}
+
+	public void clear() {
+		clear(0, widthFrame - 1);
+	}
+
+	// Only scanlines x1 .. x2 will have runs
+	private void clear(int x1, int x2) {
+		nRuns = 0;
+		firstLine = x1;
+		lastLine = x2;
+		nLines = x1;
+	}
+
+	// +--------------------------------------------------+
+	// | Add a run, scanlines and runs must come in order |
+	// +--------------------------------------------------+
+
+	public void addRun(int x, int start, int end, int c) {
+		while (nLines <= x) {
+			lineStart[nLines++] = nRuns;
+		}
+		if (nRuns == runStart.length) {
+			int capacity = 2 * nRuns;
+			runLine = Arrays.copyOf(runLine, capacity);
+			runStart = Arrays.copyOf(runStart, capacity);
+			runEnd = Arrays.copyOf(runEnd, capacity);
+			runClass = Arrays.copyOf(runClass, capacity);
+		}
+		runLine[nRuns] = x;
+		runStart[nRuns] = start;
+		runEnd[nRuns] = end;
+		runClass[nRuns] = c;
+		++nRuns;
+	}
+
+	// Add pixel (x, y) of class c, extending the last run when it continues it
+	public void append(int x, int y, int c) {
+		int last = nRuns - 1;
+		if ((last >= 0) && (runLine[last] == x) && (runClass[last] == c) && (runEnd[last] == y - 1)) {
+			runEnd[last] = y;
+			return;
+		}
+		addRun(x, y, y, c);
+	}
+
+	// Close the remaining scanlines once all the runs are added
+	public void finish() {
+		while (nLines <= lastLine + 1) {
+			lineStart[nLines++] = nRuns;
+		}
+	}
+
+	// +-----------------------------------------------------------+
+	// | Encode the bit masks of the classes, masks[c] for class c |
+	// +-----------------------------------------------------------+
+
+	// The masks are read one word at a time, so the cost is one step per 64
+	// pixels plus one per run. A null mask is skipped.
+	public void encode(BinaryMask masks[]) {
+		encode(masks, 0, 0, widthFrame - 1, heightFrame - 1);
+	}
+
+	// Only the pixels of the window [x1, x2] x [y1, y2], the other scanlines are left empty
+	public void encode(BinaryMask masks[], int x1, int y1, int x2, int y2) {
+		clear(x1, x2);
+		for (int x = x1; x <= x2; ++x) {
+			int first = nRuns;
+			for (int c = 0; c < masks.length; ++c) {
+				if (masks[c] == null) {
+					continue;
+				}
+				appendRuns(masks[c], x, c, y1, y2);
+			}
+
+			// Interleave the runs of the classes by start (insertion sort of a short scanline)
+			for (int i = first + 1; i < nRuns; ++i) {
+				int start = runStart[i];
+				int end = runEnd[i];
+				int c = runClass[i];
+				int j = i - 1;
+				while ((j >= first) && (runStart[j] > start)) {
+					runStart[j + 1] = runStart[j];
+					runEnd[j + 1] = runEnd[j];
+					runClass[j + 1] = runClass[j];
+					--j;
+				}
+				runStart[j + 1] = start;
+				runEnd[j + 1] = end;
+				runClass[j + 1] = c;
+			}
+		}
+		finish();
+	}
+
+	private void appendRuns(BinaryMask mask, int x, int c, int y1, int y2) {
+		int first = nRuns;
+		int base = x * mask.nWords;
+		int w1 = y1 >> 6;
+		int w2 = y2 >> 6;
+		for (int w = w1; w <= w2; ++w) {
+			long word = mask.bits[base + w];
+
+			// Clip the first and the last word to the window
+			if (w == w1) {
+				word &= -1L << y1;
+			}
+			if ((w == w2) && ((y2 & 63) != 63)) {
+				word &= (1L << (y2 + 1)) - 1;
+			}
+
+			while (word != 0) {
+				// Set bits [s, e) of the word
+				int s = Long.numberOfTrailingZeros(word);
+				long rest = ~word & (-1L << s);
+				int e = (rest == 0) ? 64 : Long.numberOfTrailingZeros(rest);
+
+				int start = (w << 6) + s;
+				int end = (w << 6) + e - 1;
+				if ((nRuns > first) && (runEnd[nRuns - 1] == start - 1)) {
+					// The run goes on from the previous word
+					runEnd[nRuns - 1] = end;
+				} else {
+					addRun(x, start, end, c);
+				}
+
+				word = (e == 64) ? 0 : word & (-1L << e);
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+import java.util.ArrayList;
+
+import GUI.Rectangle;
+
+// Uniform grid over the centers of the detected rectangles, rebuilt once per
+// frame. The buckets are stored in compressed form (counting sort into one
+// int array), so rebuilding reuses the same buffers and allocates nothing.
+
+public class SpatialGrid {
+
+	private double cellSize;
+
+	// Cell size actually used by the last build(), enlarged on sparse frames
+	private double cellSizeUsed;
+
+	// Bounding box of the points and the grid dimensions
+	private int minX, minY;
+	private int nCellsX, nCellsY;
+
+	// Points
+	private int nPoints;
+	private int pointX[];
+	private int pointY[];
+
+	// Bucket of cell c is items[cellStart[c] .. cellStart[c + 1] - 1]
+	private int cellStart[];
+	private int items[];
+
+	// A cell size of 0 picks one from the spread of the points on every build()
+	public SpatialGrid(double cellSize) {
+		this.cellSize = cellSize;
+		pointX = new int [0];
+		pointY = new int [0];
+		cellStart = new int [1];
+		items = new int [0];
+	}
+
+	public int size() {
+		return nPoints;
+	}
+
+	// +-------------------------------------------+
+	// | Build the grid over the rectangle centers |
+	// +-------------------------------------------+
+
+	public void build(ArrayList<Rectangle> rects) {
+		nPoints = rects.size();
+		if (pointX.length < nPoints) {
+			pointX = new int [nPoints];
+			pointY = new int [nPoints];
+			items = new int [nPoints];
+		}
+
+		minX = Integer.MAX_VALUE;
+		minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < nPoints; ++i) {
+			pointX[i] = rects.get(i).center.x;
+			pointY[i] = rects.get(i).center.y;
+			minX = Math.min(minX, pointX[i]);
+			minY = Math.min(minY, pointY[i]);
+			maxX = Math.max(maxX, pointX[i]);
+			maxY = Math.max(maxY, pointY[i]);
+		}
+
+		if (nPoints == 0) {
+			nCellsX = 0;
+			nCellsY = 0;
+			return;
+		}
+
+		// About one point per cell when no cell size is given
+		double size = cellSize;
+		if (size <= 0.0) {
+			size = Math.sqrt((double)(maxX - minX + 1) * (maxY - minY + 1) / nPoints);
+		}
+		size = Math.max(1.0, size);
+
+		// Keep the number of cells linear in the number of points
+		while (true) {
+			nCellsX = (int)((maxX - minX) / size) + 1;
+			nCellsY = (int)((maxY - minY) / size) + 1;
+			if ((long)(nCellsX) * nCellsY <= 4L * nPoints + 16) {
+				break;
+			}
+			size *= 2.0;
+		}
+		cellSizeUsed = size;
+
+		int nCells = nCellsX * nCellsY;
+		if (cellStart.length < nCells + 1) {
+			cellStart = new int [nCells + 1];
+		}
+		for (int c = 0; c <= nCells; ++c) {
+			cellStart[c] = 0;
+		}
+
+		// Counting sort of the points by cell
+		for (int i = 0; i < nPoints; ++i) {
+			++cellStart[cellOf(pointX[i], pointY[i]) + 1];
+		}
+		for (int c = 0; c < nCells; ++c) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		for (int i = 0; i < nPoints; ++i) {
+			int c = cellOf(pointX[i], pointY[i]);
+			items[cellStart[c]++] = i;
+		}
+		for (int c = nCells; c > 0; --c) {
+			cellStart[c] = cellStart[c - 1];
+		}
+		cellStart[0] = 0;
+	}
+
+	private int cellOf(int x, int y) {
+		int cx = (int)((x - minX) / cellSizeUsed);
+		int cy = (int)((y - minY) / cellSizeUsed);
+		return cy * nCellsX + cx;
+	}
+
+	// +-----------------------------------------------------------------+
+	// | All points within radius of (x, y), returns how many were found |
+	// +-----------------------------------------------------------------+
+
+	// The indices are written into out, which must hold at least size() elements.
+	public int queryRadius(double x, double y, double radius, int out[]) {
+		if (nPoints == 0) {
+			return 0;
+		}
+
+		int cx1 = Math.max(0, (int)Math.floor((x - radius - minX) / cellSizeUsed));
+		int cy1 = Math.max(0, (int)Math.floor((y - radius - minY) / cellSizeUsed));
+		int cx2 = Math.min(nCellsX - 1, (int)Math.floor((x + radius - minX) / cellSizeUsed));
+		int cy2 = Math.min(nCellsY - 1, (int)Math.floor((y + radius - minY) / cellSizeUsed));
+
+		int count = 0;
+		double r2 = radius * radius;
+		for (int cy = cy1; cy <= cy2; ++cy) {
+			for (int cx = cx1; cx <= cx2; ++cx) {
+				int c = cy * nCellsX + cx;
+				for (int k = cellStart[c]; k < cellStart[c + 1]; ++k) {
+					int i = items[k];
+					double dx = pointX[i] - x;
+					double dy = pointY[i] - y;
+					if (dx * dx + dy * dy <= r2) {
+						out[count++] = i;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	// +---------------------------------------------------------------+
+	// | Nearest point to (x, y) by growing rings of cells, -1 if none |
+	// +---------------------------------------------------------------+
+
+	// Ties are broken towards the lower index, like a linear scan would.
+	public int nearest(double x, double y) {
+		if (nPoints == 0) {
+			return -1;
+		}
+
+		int qx = (int)Math.floor((x - minX) / cellSizeUsed);
+		int qy = (int)Math.floor((y - minY) / cellSizeUsed);
+		int maxRing = Math.max(Math.max(Math.abs(qx), Math.abs(nCellsX - 1 - qx)), Math.max(Math.abs(qy), Math.abs(nCellsY - 1 - qy)));
+
+		// The rings closer than the grid are empty, start at its distance in cells
+		int firstRing = Math.max(Math.max(-qx, qx - (nCellsX - 1)), Math.max(-qy, qy - (nCellsY - 1)));
+		firstRing = Math.max(0, firstRing);
+
+		double best = Double.MAX_VALUE;
+		int index = -1;
+		for (int ring = firstRing; ring <= maxRing; ++ring) {
+			// Only the cells of the ring inside the grid
+			int cx1 = Math.max(0, qx - ring);
+			int cx2 = Math.min(nCellsX - 1, qx + ring);
+			int cy1 = Math.max(0, qy - ring);
+			int cy2 = Math.min(nCellsY - 1, qy + ring);
+			for (int cy = cy1; cy <= cy2; ++cy) {
+				// Whole rows on the top and bottom of the ring, its two side cells otherwise
+				boolean edge = (cy == qy - ring) || (cy == qy + ring);
+				int step = edge ? 1 : Math.max(1, 2 * ring);
+				int from = edge ? cx1 : qx - ring;
+				int to = edge ? cx2 : qx + ring;
+				for (int cx = from; cx <= to; cx += step) {
+					if ((cx < 0) || (cx >= nCellsX)) {
+						continue;
+					}
+					int c = cy * nCellsX + cx;
+					for (int k = cellStart[c]; k < cellStart[c + 1]; ++k) {
+						int i = items[k];
+						double dx = pointX[i] - x;
+						double dy = pointY[i] - y;
+						double d = dx * dx + dy * dy;
+						if ((d < best) || ((d == best) && (i < index))) {
+							best = d;
+							index = i;
+						}
+					}
+				}
+			}
+
+			// Every point beyond this ring is at least ring cells away
+			if ((index != -1) && (Math.sqrt(best) <= ring * cellSizeUsed)) {
+				break;
+			}
+		}
+		return index;
+	}
+
+}
\ No newline at end of file
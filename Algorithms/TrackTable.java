@@ -0,0 +1,303 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package Algorithms;
+
+// Structure-of-arrays store of independent tracks with state [x, y, vx, vy],
+// all filtered by the same velocity model. Every field of the state and of
+// the symmetric 4x4 covariance is a parallel double[] over the tracks, so the
+// prediction and the update are straight loops over primitive arrays that the
+// JIT can unroll and vectorize. With A = [I, delta * I; 0, I], C = [I, 0] and
+// diagonal R and Q, the 4x4 products reduce to the closed forms below.
+
+public class TrackTable {
+
+	public int size;
+
+	// State
+	public double x[];
+	public double y[];
+	public double vx[];
+	public double vy[];
+
+	// Upper triangle of the covariance, u = vx and v = vy
+	public double pxx[];
+	public double pxy[];
+	public double pxu[];
+	public double pxv[];
+	public double pyy[];
+	public double pyu[];
+	public double pyv[];
+	public double puu[];
+	public double puv[];
+	public double pvv[];
+
+	// Measurements of the next update
+	public double zx[];
+	public double zy[];
+
+	// Kalman gain, rows x, y, u, v and columns x, y
+	private double kxx[];
+	private double kxy[];
+	private double kyx[];
+	private double kyy[];
+	private double kux[];
+	private double kuy[];
+	private double kvx[];
+	private double kvy[];
+
+	// Model
+	private double delta;
+	private double motionNoise;
+	private double measurementNoise;
+
+	// Steady-state gain of every track (see KalmanFilter.enableSteadyState)
+	private boolean steadyState;
+	private double steadyTolerance;
+	private boolean converged[];
+	private int nConverged;
+
+	public TrackTable(int size, double delta, double motionNoise, double measurementNoise) {
+		this.size = size;
+		this.delta = delta;
+		this.motionNoise = motionNoise;
+		this.measurementNoise = measurementNoise;
+
+		x = new double [size];
+		y = new double [size];
+		vx = new double [size];
+		vy = new double [size];
+
+		pxx = new double [size];
+		pxy = new double [size];
+		pxu = new double [size];
+		pxv = new double [size];
+		pyy = new double [size];
+		pyu = new double [size];
+		pyv = new double [size];
+		puu = new double [size];
+		puv = new double [size];
+		pvv = new double [size];
+
+		zx = new double [size];
+		zy = new double [size];
+
+		kxx = new double [size];
+		kxy = new double [size];
+		kyx = new double [size];
+		kyy = new double [size];
+		kux = new double [size];
+		kuy = new double [size];
+		kvx = new double [size];
+		kvy = new double [size];
+
+		converged = new boolean [size];
+	}
+
+	// +---------------------------------------------------+
+	// | Initial state of track i with identity covariance |
+	// +---------------------------------------------------+
+
+	public void init(int i, double x0, double y0, double vx0, double vy0) {
+		x[i] = x0;
+		y[i] = y0;
+		vx[i] = vx0;
+		vy[i] = vy0;
+
+		pxx[i] = 1.0;
+		pxy[i] = 0.0;
+		pxu[i] = 0.0;
+		pxv[i] = 0.0;
+		pyy[i] = 1.0;
+		pyu[i] = 0.0;
+		pyv[i] = 0.0;
+		puu[i] = 1.0;
+		puv[i] = 0.0;
+		pvv[i] = 1.0;
+	}
+
+	public void enableSteadyState(double tolerance) {
+		steadyState = true;
+		steadyTolerance = tolerance;
+	}
+
+	public boolean isSteadyState() {
+		return steadyState && (nConverged == size);
+	}
+
+	// +---------------------------------------------------+
+	// | Prediction and update of all tracks with (zx, zy) |
+	// +---------------------------------------------------+
+
+	public void predictUpdate() {
+		predictState();
+
+		if (steadyState && (nConverged == size)) {
+			updateMean();
+			return;
+		}
+
+		for (int i = 0; i < size; ++i) {
+			if (converged[i]) {
+				updateMean(i);
+			} else {
+				predictUpdateCovariance(i);
+			}
+		}
+	}
+
+	// +---------------------------------------------------+
+	// | Prediction only, for a frame without measurements |
+	// +---------------------------------------------------+
+
+	// The covariance grows, so the cached gains no longer hold and every track
+	// computes its gain again at the next update.
+	public void predict() {
+		predictState();
+		for (int i = 0; i < size; ++i) {
+			predictCovariance(i);
+			if (converged[i]) {
+				converged[i] = false;
+				--nConverged;
+			}
+		}
+	}
+
+	// mu_bar = A * mu
+	private void predictState() {
+		double d = delta;
+		for (int i = 0; i < size; ++i) {
+			x[i] += d * vx[i];
+			y[i] += d * vy[i];
+		}
+	}
+
+	// mu = mu_bar + K * (z - C * mu_bar) with the cached gains of all tracks
+	private void updateMean() {
+		for (int i = 0; i < size; ++i) {
+			double rx = zx[i] - x[i];
+			double ry = zy[i] - y[i];
+			x[i] += kxx[i] * rx + kxy[i] * ry;
+			y[i] += kyx[i] * rx + kyy[i] * ry;
+			vx[i] += kux[i] * rx + kuy[i] * ry;
+			vy[i] += kvx[i] * rx + kvy[i] * ry;
+		}
+	}
+
+	private void updateMean(int i) {
+		double rx = zx[i] - x[i];
+		double ry = zy[i] - y[i];
+		x[i] += kxx[i] * rx + kxy[i] * ry;
+		y[i] += kyx[i] * rx + kyy[i] * ry;
+		vx[i] += kux[i] * rx + kuy[i] * ry;
+		vy[i] += kvx[i] * rx + kvy[i] * ry;
+	}
+
+	// +---------------------------------------------------+
+	// | Covariance prediction, gain and update of track i |
+	// +---------------------------------------------------+
+
+	// sigma_bar = A * sigma * A^T + R
+	private void predictCovariance(int i) {
+		double d = delta;
+		double dd = d * d;
+		double r = motionNoise;
+
+		double xx = pxx[i] + 2.0 * d * pxu[i] + dd * puu[i] + r;
+		double xy = pxy[i] + d * (pxv[i] + pyu[i]) + dd * puv[i];
+		double xu = pxu[i] + d * puu[i];
+		double xv = pxv[i] + d * puv[i];
+		double yy = pyy[i] + 2.0 * d * pyv[i] + dd * pvv[i] + r;
+		double yu = pyu[i] + d * puv[i];
+		double yv = pyv[i] + d * pvv[i];
+		pxx[i] = xx;
+		pxy[i] = xy;
+		pxu[i] = xu;
+		pxv[i] = xv;
+		pyy[i] = yy;
+		pyu[i] = yu;
+		pyv[i] = yv;
+		puu[i] += r;
+		pvv[i] += r;
+	}
+
+	private void predictUpdateCovariance(int i) {
+		predictCovariance(i);
+		double xx = pxx[i];
+		double xy = pxy[i];
+		double xu = pxu[i];
+		double xv = pxv[i];
+		double yy = pyy[i];
+		double yu = pyu[i];
+		double yv = pyv[i];
+		double uu = puu[i];
+		double uv = puv[i];
+		double vv = pvv[i];
+
+		// S = C * sigma_bar * C^T + Q is 2x2, inverted in closed form
+		double s00 = xx + measurementNoise;
+		double s01 = xy;
+		double s11 = yy + measurementNoise;
+		double det = s00 * s11 - s01 * s01;
+		if (!(s00 > 1e-12) || !(det > 1e-12)) {
+			// Keep the prediction when S is not positive definite
+			return;
+		}
+		double i00 = s11 / det;
+		double i01 = -s01 / det;
+		double i11 = s00 / det;
+
+		// K = sigma_bar * C^T * S^(-1)
+		double gxx = xx * i00 + xy * i01;
+		double gxy = xx * i01 + xy * i11;
+		double gyx = xy * i00 + yy * i01;
+		double gyy = xy * i01 + yy * i11;
+		double gux = xu * i00 + yu * i01;
+		double guy = xu * i01 + yu * i11;
+		double gvx = xv * i00 + yv * i01;
+		double gvy = xv * i01 + yv * i11;
+
+		// Switch to the cached gain once it stops changing
+		if (steadyState) {
+			double change = Math.abs(gxx - kxx[i]);
+			change = Math.max(change, Math.abs(gxy - kxy[i]));
+			change = Math.max(change, Math.abs(gyx - kyx[i]));
+			change = Math.max(change, Math.abs(gyy - kyy[i]));
+			change = Math.max(change, Math.abs(gux - kux[i]));
+			change = Math.max(change, Math.abs(guy - kuy[i]));
+			change = Math.max(change, Math.abs(gvx - kvx[i]));
+			change = Math.max(change, Math.abs(gvy - kvy[i]));
+			if (change < steadyTolerance) {
+				converged[i] = true;
+				++nConverged;
+			}
+		}
+
+		kxx[i] = gxx;
+		kxy[i] = gxy;
+		kyx[i] = gyx;
+		kyy[i] = gyy;
+		kux[i] = gux;
+		kuy[i] = guy;
+		kvx[i] = gvx;
+		kvy[i] = gvy;
+
+		updateMean(i);
+
+		// sigma = (I - K * C) * sigma_bar = sigma_bar - K * (rows x and y of sigma_bar)
+		pxx[i] = xx - (gxx * xx + gxy * xy);
+		pxy[i] = xy - (gxx * xy + gxy * yy);
+		pxu[i] = xu - (gxx * xu + gxy * yu);
+		pxv[i] = xv - (gxx * xv + gxy * yv);
+		pyy[i] = yy - (gyx * xy + gyy * yy);
+		pyu[i] = yu - (gyx * xu + gyy * yu);
+		pyv[i] = yv - (gyx * xv + gyy * yv);
+		puu[i] = uu - (gux * xu + guy * yu);
+		puv[i] = uv - (gux * xv + guy * yv);
+		pvv[i] = vv - (gvx * xv + gvy * yv);
+	}
+
+}
\ No newline at end of file
@@ -6,95 +6,49 @@
 
 package GUI;
 
-import Algorithms.Normalization;
-import Algorithms.BallDetection;
-import Algorithms.RobotDetection;
-import Algorithms.KalmanFilter;
+import Algorithms.BinaryMask;
+import Algorithms.ColorClass;
 
-import javax.imageio.ImageIO;
-import javax.swing.JOptionPane;
-
-import java.io.File;
-import java.io.IOException;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Random;
-
-public class Agent {
-
-	// Field image
-	private ObjectImage fieldImage;
+import java.util.Arrays;
 
-	// Robot image
-	private ObjectImage robotImage;
+// Display of a TrackingEngine: the Camera image, and the filter image with the
+// detected objects and the estimated positions, in two windows.
 
-	// Ball image
-	private ObjectImage ballImage; 
+public class Agent implements TrackingEngine.FrameListener {
 
-	// Step size in pixels
-	private int step;
+	// Simulation and tracking
+	private TrackingEngine engine;
 
-	// Probability of changing direction
-	private int changeDirPercent;
-
-	// Delay time in miliseconds
+	// Delay time in milliseconds, the period of the frames shown
 	private int delayTime;
 
-	// Input from Camera
-	private ObjectImage camera;
+	// Paces the frames at one every delayTime milliseconds, the late ones are not shown
+	private FrameScheduler scheduler;
 
-	// Background subtraction and color detections from input camera
-	private ObjectImage filter;
+	// Late frames are not detected either, the Kalman Filters only predict the objects in them
+	private final boolean skipLateDetection = true;
 
-	// Output of camera image with corrected positions of Robots and Balls by Kalman Filter
-	private ObjectImage processed_camera;
+	// Frames shown between two reports of the frame rate
+	private final int reportPeriod = 100;
 
 	// Output of filter image with objects detection
-	private ObjectImage processed_filter;
-
-	// Number of robots
-	private int nRobots;
-
-	// Number of balls
-	private int nBalls;
-
-	// Robot ground-truth positions
-	private ArrayList < Coordinate > robots;
-
-	// Ball ground-truth positions
-	private ArrayList < Coordinate > balls;
-
-	// Moving directions of robots
-	private ArrayList < Integer > dir_robots;
-
-	// Moving directions of balls
-	private ArrayList < Integer > dir_balls;
-
-	// Algorithm to detect robots and return the rectangles (white-color detection and BFS algorithm)
-	private RobotDetection robotDetection;
-
-	// Algorithm to detect balls and return the rectangles (red-color detection and BFS algorithm)
-	private BallDetection ballDetection;
+	private FrameBuffer processed_filter;
 
-	// Kalman Filter 1 for Robots
-	private KalmanFilter robot_kalmanFilter;
+	// Rectangles of the objects drawn in the filter image in the last frame
+	private ArrayList<Rectangle> outlines;
 
-	// Kalman Filter 2 for Balls
-	private KalmanFilter ball_kalmanFilter;
+	// The filter image is drawn in full for the first frame and after a dropped frame, then only in the dirty regions
+	private boolean fullFilter = true;
 
-	// Boolean variable to determine to use Kalman Filter or not
-	private boolean useKF;
+	// Index of the last frame drawn in the filter image
+	private long lastShown = -1;
 
-	// Motion model noise
-	private double motionNoise;
+	// Threads of the per-pixel stages of the engine
+	private final int parallelism = Runtime.getRuntime().availableProcessors();
 
-	// Measurement noise
-	private double measurementNoise;
-
-	// Directions
-	private final int nDir = 8;
-	private final int DX[] = {-1, 1, 0, 0, -1, -1, 1, 1};
-	private final int DY[] = {0, 0, -1, 1, -1, 1, -1, 1};
+	// When the display falls behind: RingBuffer.BLOCK slows down the simulation, RingBuffer.DROP_OLDEST skips frames
+	private final int displayBackpressure = RingBuffer.BLOCK;
 
 	// Frame to show Camera
 	private ShowFrame cameraFrame;
@@ -102,9 +56,6 @@ public class Agent {
 	// Frame to show filtered image from the Camera
 	private ShowFrame filterFrame;
 
-	// Randomization
-	private Random rand = new Random();
-
 	// +-------------+
 	// | Constructor |
 	// +-------------+
@@ -124,171 +75,44 @@ public class Agent {
 		System.out.println("Measurement noise: " + Double.toString(measurementNoise));
 		System.out.println("Use Kalman Filter: " + Boolean.toString(useKF));
 
-		fieldImage = getImage(fieldImageName);
-		robotImage = getImage(robotImageName, robotSize);
-		ballImage = getImage(ballImageName, ballSize);
-
-		this.nRobots = nRobots;
-		this.nBalls = nBalls;
-
-		cameraFrame = new ShowFrame("Camera frame", fieldImage.width, fieldImage.height);
-		filterFrame = new ShowFrame("Filter frame", fieldImage.width, fieldImage.height);
-
-		camera = new ObjectImage(fieldImage.width, fieldImage.height);
-		processed_camera = new ObjectImage(fieldImage.width, fieldImage.height);
-
-		filter = new ObjectImage(fieldImage.width, fieldImage.height);
-		processed_filter = new ObjectImage(fieldImage.width, fieldImage.height);
+		engine = new TrackingEngine(nRobots, robotSize, nBalls, ballSize, fieldImageName, robotImageName, ballImageName, step, changeDirPercent, useKF, motionNoise, measurementNoise, parallelism);
 
-		robotDetection = new RobotDetection(fieldImage.width, fieldImage.height);
-		ballDetection = new BallDetection(fieldImage.width, fieldImage.height);
-
-		this.step = step;
-		this.changeDirPercent = changeDirPercent;
 		this.delayTime = delayTime;
-		this.motionNoise = motionNoise;
-		this.measurementNoise = measurementNoise;
-		this.useKF = useKF;
-
-		process();
-	}
 
-	// +---------------+
-	// | Infinite loop |
-	// +---------------+
+		cameraFrame = new ShowFrame("Camera frame", engine.getWidth(), engine.getHeight());
+		filterFrame = new ShowFrame("Filter frame", engine.getWidth(), engine.getHeight());
 
-	private void process() {
-		// Randomly initialize the Robots positions
-		initPositions();
+		processed_filter = new FrameBuffer(engine.getWidth(), engine.getHeight());
+		outlines = new ArrayList<>();
 
-		// Initialize the Kalman Filter for Robots
-		robot_kalmanFilter = new KalmanFilter(this.nRobots, robots, (double)(step), motionNoise, measurementNoise);
+		scheduler = new FrameScheduler((delayTime > 0) ? 1000.0 / delayTime : 0.0);
+		scheduler.setSkipDetection(skipLateDetection);
 
-		// Initialize the Kalman Filter for Balls
-		ball_kalmanFilter = new KalmanFilter(this.nBalls, balls, (double)(step), motionNoise, measurementNoise);
+		engine.setBackpressure(displayBackpressure);
+		engine.setScheduler(scheduler);
+		engine.setListener(this);
 
 		// Infinite loop
-		while (true) {
-			// Move the Robots and the Balls
-			genPositions();
-
-			// Generate a synthetic Camera image
-			genCamera();
-
-			// Generate a filtered image from the Camera
-			genFilter();
-
-			// Draw the Camera image
-			cameraFrame.drawPicture(camera);
-
-			// Robots detection
-			ArrayList<Rectangle> rect_robots = robotDetection.detect(filter);
-
-			// Balls detection
-			ArrayList<Rectangle> rect_balls = ballDetection.detect(filter);
-
-			// Add rectangles to the filter image
-			addRectsFilter(rect_robots, rect_balls);
-
-			// Update the new Robots positions by Kalman Filter
-			ArrayList<Coordinate> estimate_robots = null;
-			if (useKF) {
-				estimate_robots = robot_kalmanFilter.filter_on(rect_robots);
-			} else {
-				estimate_robots = robot_kalmanFilter.filter_off(rect_robots);
-			}
-
-			// Update the new Balls positions by Kalman Filter
-			ArrayList<Coordinate> estimate_balls = null;
-			if (useKF) {
-				estimate_balls = ball_kalmanFilter.filter_on(rect_balls);
-			} else {
-				estimate_balls = ball_kalmanFilter.filter_off(rect_balls);
-			}
-
-			// Draw the output picture
-			filterFrame.drawPicture(processed_filter, estimate_robots, estimate_balls);
-
-			// Delay sometime for the users to see the results
-			if (delayTime > 0) {
-				try {
-					Thread.sleep(delayTime);
-				} catch (Exception exc) {
-					System.err.println(exc.toString());
-				}
-			}
-		}
+		engine.run(-1);
 	}
 
-	// +-----------------------------------+
-	// | Generate a synthetic Camera image |
-	// +-----------------------------------+
+	// +--------------------------------+
+	// | Show every frame of the engine |
+	// +--------------------------------+
 
-	private void genCamera() {
-		for (int x = 0; x < fieldImage.width; ++x) {
-			for (int y = 0; y < fieldImage.height; ++y) {
-				camera.red[x][y] = fieldImage.red[x][y];
-				camera.green[x][y] = fieldImage.green[x][y];
-				camera.blue[x][y] = fieldImage.blue[x][y];
-			}
-		}
-
-		for (int i = 0; i < nBalls; ++i) {
-			int u = balls.get(i).x - ballImage.width / 2;
-			int v = balls.get(i).y - ballImage.height / 2;
-
-			for (int x = 0; x < ballImage.width; ++x) {
-				for (int y = 0; y < ballImage.height; ++y) {
-					if (isNotWhite(ballImage.red[x][y], ballImage.green[x][y], ballImage.blue[x][y])) {
-						camera.red[u + x][v + y] = ballImage.red[x][y];
-						camera.green[u + x][v + y] = ballImage.green[x][y];
-						camera.blue[u + x][v + y] = ballImage.blue[x][y];
-					}
-				}
-			}
-		}
+	@Override
+	public void frameTracked(FrameSlot slot) {
+		// Add rectangles to the filter image
+		addRectsFilter(slot);
 
-		for (int i = 0; i < nRobots; ++i) {
-			int u = robots.get(i).x - robotImage.width / 2;
-			int v = robots.get(i).y - robotImage.height / 2;
-
-			for (int x = 0; x < robotImage.width; ++x) {
-				for (int y = 0; y < robotImage.height; ++y) {
-					if (isNotWhite(robotImage.red[x][y], robotImage.green[x][y], robotImage.blue[x][y])) {
-						camera.red[u + x][v + y] = robotImage.red[x][y];
-						camera.green[u + x][v + y] = robotImage.green[x][y];
-						camera.blue[u + x][v + y] = robotImage.blue[x][y];
-					}
-				}
-			}
-		}
-	}
+		// Draw the Camera image
+		cameraFrame.drawPicture(slot.camera);
 
-	// +----------------------------------------------------------------+
-	// | From the Camera image, filter background, red and white colors |
-	// +----------------------------------------------------------------+
-
-	private void genFilter() {
-		for (int x = 0; x < filter.width; ++x) {
-			for (int y = 0; y < filter.height; ++y) {
-				if ((camera.red[x][y] == fieldImage.red[x][y]) && (camera.green[x][y] == fieldImage.green[x][y]) && (camera.blue[x][y] == fieldImage.blue[x][y])) {
-					filter.red[x][y] = 0;
-					filter.green[x][y] = 0;
-					filter.blue[x][y] = 0;
-					continue;
-				}
+		// Draw the output picture
+		filterFrame.drawPicture(processed_filter, slot.estimate_robots, slot.estimate_balls);
 
-				if ((camera.red[x][y] >= 150) && (camera.green[x][y] <= 50) && (camera.blue[x][y] <= 50)) {
-					filter.red[x][y] = 255;
-					filter.green[x][y] = 0;
-					filter.blue[x][y] = 0;
-					continue;
-				}
-
-				filter.red[x][y] = 255;
-				filter.green[x][y] = 255;
-				filter.blue[x][y] = 255;
-			}
+		if (scheduler.getShownCount() % reportPeriod == 0) {
+			System.out.println("Frames per second: " + String.format("%.1f", scheduler.getFrameRate()) + " (shown: " + String.format("%.1f", scheduler.getShownRate()) + "), late frames not shown: " + Long.toString(scheduler.getSkippedCount()) + ", dropped frames: " + Long.toString(engine.getDroppedCount()));
 		}
 	}
 
@@ -296,392 +120,112 @@ public class Agent {
 	// | Add rectangles of the objects detected by Object Detection algorithm |
 	// +----------------------------------------------------------------------+
 
-	private void addRectsFilter(ArrayList<Rectangle> rect_robots, ArrayList<Rectangle> rect_balls) {
-		for (int x = 0; x < filter.width; ++x) {
-			for (int y = 0; y < filter.height; ++y) {
-				processed_filter.red[x][y] = filter.red[x][y];
-				processed_filter.green[x][y] = filter.green[x][y];
-				processed_filter.blue[x][y] = filter.blue[x][y];
-			}
+	private void addRectsFilter(FrameSlot slot) {
+		// The dirty regions of the frames dropped in between are not known
+		if (slot.index != lastShown + 1) {
+			fullFilter = true;
 		}
+		lastShown = slot.index;
 
-		for (int i = 0; i < rect_robots.size(); ++i) {
-			int x1 = rect_robots.get(i).top.x;
-			int y1 = rect_robots.get(i).top.y;
+		engine.getExecutor().forRows(processed_filter.height, (y1, y2) -> drawFilter(slot, y1, y2));
 
-			int x2 = rect_robots.get(i).bottom.x;
-			int y2 = rect_robots.get(i).bottom.y;
-
-			for (int x = x1; x <= x2; ++x) {
-				processed_filter.red[x][y1] = 0;
-				processed_filter.green[x][y1] = 255;
-				processed_filter.blue[x][y1] = 0;
+		fullFilter = false;
+		outlines.clear();
+		outlines.addAll(slot.rect_robots);
+		outlines.addAll(slot.rect_balls);
+	}
 
-				processed_filter.red[x][y2] = 0;
-				processed_filter.green[x][y2] = 255;
-				processed_filter.blue[x][y2] = 0;
+	// Rows [y1, y2] of the filter image
+	private void drawFilter(FrameSlot slot, int y1, int y2) {
+		if (fullFilter) {
+			Arrays.fill(processed_filter.pixels, y1 * processed_filter.width, (y2 + 1) * processed_filter.width, 0);
+			for (int c = 1; c <= engine.getDetectors().getClassCount(); ++c) {
+				ColorClass colorClass = engine.getDetectors().getColorClass(c);
+				drawMask(slot.masks[c], FrameBuffer.RGB(colorClass.displayRed, colorClass.displayGreen, colorClass.displayBlue), y1, y2);
 			}
-
-			for (int y = y1; y <= y2; ++y) {
-				processed_filter.red[x1][y] = 0;
-				processed_filter.green[x1][y] = 255;
-				processed_filter.blue[x1][y] = 0;
-
-				processed_filter.red[x2][y] = 0;
-				processed_filter.green[x2][y] = 255;
-				processed_filter.blue[x2][y] = 0;
+		} else {
+			// Repaint the changed pixels and erase the rectangles of the last frame
+			for (int i = 0; i < slot.dirty.size(); ++i) {
+				repaintFilter(slot.masks, slot.dirty.get(i), y1, y2);
 			}
-		}
-
-		for (int i = 0; i < rect_balls.size(); ++i) {
-			int x1 = rect_balls.get(i).top.x;
-			int y1 = rect_balls.get(i).top.y;
-
-			int x2 = rect_balls.get(i).bottom.x;
-			int y2 = rect_balls.get(i).bottom.y;
-
-			for (int x = x1; x <= x2; ++x) {
-				if (Math.min(x - x1, x2 - x) <= 5) {
-					processed_filter.red[x][y1] = 0;
-					processed_filter.green[x][y1] = 255;
-					processed_filter.blue[x][y1] = 0;
-
-					processed_filter.red[x][y2] = 0;
-					processed_filter.green[x][y2] = 255;
-					processed_filter.blue[x][y2] = 0;
-				}
+			for (int i = 0; i < outlines.size(); ++i) {
+				repaintFilter(slot.masks, outlines.get(i), y1, y2);
 			}
+		}
 
-			for (int y = y1; y <= y2; ++y) {
-				if (Math.min(y - y1, y2 - y) <= 5) {
-					processed_filter.red[x1][y] = 0;
-					processed_filter.green[x1][y] = 255;
-					processed_filter.blue[x1][y] = 0;
-
-					processed_filter.red[x2][y] = 0;
-					processed_filter.green[x2][y] = 255;
-					processed_filter.blue[x2][y] = 0;
-				}
-			}
+		// Robots are outlined in full, Balls by their corners
+		for (int i = 0; i < slot.rect_robots.size(); ++i) {
+			drawOutline(slot.rect_robots.get(i), Integer.MAX_VALUE, y1, y2);
+		}
+		for (int i = 0; i < slot.rect_balls.size(); ++i) {
+			drawOutline(slot.rect_balls.get(i), 5, y1, y2);
 		}
 	}
 
-	// +--------------------------------------------------------------------+
-	// | Randomize the initial positions and directions of Robots and Balls |
-	// +--------------------------------------------------------------------+
+	// Outline of rect in the rows [y1, y2], only the pixels at most corner pixels away from a corner
+	private void drawOutline(Rectangle rect, int corner, int y1, int y2) {
+		int outline = FrameBuffer.RGB(0, 255, 0);
 
-	private void initPositions() {
-		robots = new ArrayList<>();
-		dir_robots = new ArrayList<>();
+		int left = rect.top.x;
+		int top = rect.top.y;
+		int right = rect.bottom.x;
+		int bottom = rect.bottom.y;
 
-		balls = new ArrayList<>();
-		dir_balls = new ArrayList<>();
-
-		for (int i = 0; i < nRobots; ++i) {
-			while (true) {
-				int x = Math.abs(rand.nextInt()) % fieldImage.width;
-				int y = Math.abs(rand.nextInt()) % fieldImage.height;
-
-				if (x - robotImage.width / 2 < 0) {
-					continue;
-				} 
-				if (x + robotImage.width / 2 >= fieldImage.width) {
-					continue;
+		for (int x = left; x <= right; ++x) {
+			if (Math.min(x - left, right - x) <= corner) {
+				if ((top >= y1) && (top <= y2)) {
+					processed_filter.set(x, top, outline);
 				}
-				if (y - robotImage.height / 2 < 0) {
-					continue;
-				} 
-				if (y + robotImage.height / 2 >= fieldImage.height) {
-					continue;
+				if ((bottom >= y1) && (bottom <= y2)) {
+					processed_filter.set(x, bottom, outline);
 				}
-
-				robots.add(new Coordinate(x, y));
-				break;
 			}
-
-			dir_robots.add(Math.abs(rand.nextInt()) % nDir);
 		}
 
-		for (int i = 0; i < nBalls; ++i) {
-			while (true) {
-				int x = Math.abs(rand.nextInt()) % fieldImage.width;
-				int y = Math.abs(rand.nextInt()) % fieldImage.height;
-
-				if (x - ballImage.width / 2 < 0) {
-					continue;
-				} 
-				if (x + ballImage.width / 2 >= fieldImage.width) {
-					continue;
-				}
-				if (y - ballImage.height / 2 < 0) {
-					continue;
-				} 
-				if (y + ballImage.height / 2 >= fieldImage.height) {
-					continue;
-				}
-
-				balls.add(new Coordinate(x, y));
-				break;
+		for (int y = Math.max(y1, top); y <= Math.min(y2, bottom); ++y) {
+			if (Math.min(y - top, bottom - y) <= corner) {
+				processed_filter.set(left, y, outline);
+				processed_filter.set(right, y, outline);
 			}
-
-			dir_balls.add(Math.abs(rand.nextInt()) % nDir);
 		}
 	}
 
-	// +--------------------------------------------------------------------------+
-	// | Randomize the orientations, then moving the robots and balls accordingly |
-	// +--------------------------------------------------------------------------+
-
-	private void genPositions() {
-		for (int i = 0; i < nRobots; ++i) {
-			while (true) {
-				int d = dir_robots.get(i);
-				if (Math.abs(rand.nextInt()) % 100 <= changeDirPercent) {
-					d = Math.abs(rand.nextInt()) % nDir;
-				}
-
-				int x = robots.get(i).x + DX[d] * step;
-				int y = robots.get(i).y + DY[d] * step;
-
-				if (x - robotImage.width / 2 < 0) {
-					continue;
-				} 
-				if (x + robotImage.width / 2 >= fieldImage.width) {
-					continue;
-				}
-				if (y - robotImage.height / 2 < 0) {
-					continue;
-				} 
-				if (y + robotImage.height / 2 >= fieldImage.height) {
-					continue;
+	// Paint the window of rect in the rows [y1, y2] of the filter image from the masks
+	private void repaintFilter(BinaryMask masks[], Rectangle rect, int y1, int y2) {
+		for (int y = Math.max(y1, rect.top.y); y <= Math.min(y2, rect.bottom.y); ++y) {
+			for (int x = rect.top.x; x <= rect.bottom.x; ++x) {
+				int c = engine.getDetectors().classAt(masks, x, y);
+				if (c == 0) {
+					processed_filter.set(x, y, 0);
+				} else {
+					ColorClass colorClass = engine.getDetectors().getColorClass(c);
+					processed_filter.set(x, y, FrameBuffer.RGB(colorClass.displayRed, colorClass.displayGreen, colorClass.displayBlue));
 				}
-
-				dir_robots.set(i, d);
-				robots.set(i, new Coordinate(x, y));
-				break;
 			}
 		}
+	}
 
-		for (int i = 0; i < nBalls; ++i) {
-			while (true) {
-				int d = dir_balls.get(i);
-				if (Math.abs(rand.nextInt()) % 100 <= changeDirPercent) {
-					d = Math.abs(rand.nextInt()) % nDir;
+	// Paint the pixels of a mask in the rows [y1, y2] of the filter image, one word of 64 pixels at a time
+	private void drawMask(BinaryMask mask, int rgb, int y1, int y2) {
+		int w1 = y1 >> 6;
+		int w2 = y2 >> 6;
+		for (int x = 0; x < mask.widthFrame; ++x) {
+			int base = x * mask.nWords;
+			for (int w = w1; w <= w2; ++w) {
+				long word = mask.bits[base + w];
+				if (w == w1) {
+					word &= -1L << y1;
 				}
-
-				int x = balls.get(i).x + DX[d] * step;
-				int y = balls.get(i).y + DY[d] * step;
-
-				if (x - ballImage.width / 2 < 0) {
-					continue;
-				} 
-				if (x + ballImage.width / 2 >= fieldImage.width) {
-					continue;
+				if ((w == w2) && ((y2 & 63) != 63)) {
+					word &= ~(-1L << (y2 + 1));
 				}
-				if (y - ballImage.height / 2 < 0) {
-					continue;
-				} 
-				if (y + ballImage.height / 2 >= fieldImage.height) {
-					continue;
+				while (word != 0) {
+					int y = (w << 6) + Long.numberOfTrailingZeros(word);
+					processed_filter.set(x, y, rgb);
+					word &= word - 1;
 				}
-
-				dir_balls.set(i, d);
-				balls.set(i, new Coordinate(x, y));
-				break;
 			}
 		}
 	}
 
-	// +------------------------+
-	// | Read images from files |
-	// +------------------------+
-
-	private ObjectImage getImage(String imageName) {
-		BufferedImage inputImage = null;
-        try {
-            inputImage = ImageIO.read(new File(imageName));
-        } catch (IOException exc) {
-            System.err.println(exc.toString());
-            JOptionPane.showMessageDialog(null, "Cannot find the image " + imageName);
-        }
-
-        ObjectImage img = new ObjectImage();
-
-        img.width = inputImage.getWidth(null);
-        img.height = inputImage.getHeight(null);
-
-        img.red = new int [img.width][img.height];
-        img.green = new int [img.width][img.height];
-        img.blue = new int [img.width][img.height];
-
-        for (int i = 0; i < img.width; ++i) {
-            for (int j = 0; j < img.height; ++j) {
-                int RGB = inputImage.getRGB(i, j);
-                img.red[i][j] = (RGB & 0x00ff0000) >> 16;
-                img.green[i][j] = (RGB & 0x0000ff00) >> 8;
-                img.blue[i][j] = RGB & 0x000000ff;
-            }
-        }
-
-		return img;
-	}
-
-	// +------------------------------------------------------+
-	// | Extract the white-color background from input images |
-	// +------------------------------------------------------+
-
-	private boolean isNotWhite(int red, int green, int blue) {
-		if ((red != 255) || (green != 255) || (blue != 255)) {
-			return true;
-		}
-		return false;
-	}
-
-	// +--------------------------------------------------------------------------+
-	// | Read image from file, then remove the white-color background, and resize |
-	// +--------------------------------------------------------------------------+
-
-	private ObjectImage getImage(String imageName, int size) {
-		BufferedImage inputImage = null;
-        try {
-            inputImage = ImageIO.read(new File(imageName));
-        } catch (IOException exc) {
-            System.err.println(exc.toString());
-            JOptionPane.showMessageDialog(null, "Cannot find the image " + imageName);
-        }
-
-        int inputWidth = inputImage.getWidth(null);
-        int inputHeight = inputImage.getHeight(null);
-
-        int inputRed[][] = new int [inputWidth][inputHeight];
-        int inputGreen[][] = new int [inputWidth][inputHeight];
-        int inputBlue[][] = new int [inputWidth][inputHeight];
-
-        for (int i = 0; i < inputWidth; ++i) {
-            for (int j = 0; j < inputHeight; ++j) {
-                int RGB = inputImage.getRGB(i, j);
-                inputRed[i][j] = (RGB & 0x00ff0000) >> 16;
-                inputGreen[i][j] = (RGB & 0x0000ff00) >> 8;
-                inputBlue[i][j] = RGB & 0x000000ff;
-            }
-        }
-
-        int leftX = 0;
-        for (int x = 0; x < inputWidth; ++x) {
-        	boolean found = false;
-        	for (int y = 0; y < inputHeight; ++y) {
-        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
-        			found = true;
-        			break;
-        		}
-        	}
-        	if (found) {
-        		leftX = x;
-        		break;
-        	}
-        }
-
-        int rightX = inputWidth - 1;
-        for (int x = inputWidth - 1; x >= 0; --x) {
-        	boolean found = false;
-        	for (int y = 0; y < inputHeight; ++y) {
-        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
-        			found = true;
-        			break;
-        		}
-        	}
-        	if (found) {
-        		rightX = x;
-        		break;
-        	}
-        }
-
-        int lowY = 0;
-        for (int y = 0; y < inputHeight; ++y) {
-        	boolean found = false;
-        	for (int x = 0; x < inputWidth; ++x) {
-        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
-        			found = true;
-        			break;
-        		}
-        	}
-        	if (found) {
-        		lowY = y;
-        		break;
-        	}
-        }
-
-        int highY = inputHeight - 1;
-        for (int y = inputHeight - 1; y >= 0; --y) {
-        	boolean found = false;
-        	for (int x = 0; x < inputWidth; ++x) {
-        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
-        			found = true;
-        			break;
-        		}
-        	}
-        	if (found) {
-        		highY = y;
-        		break;
-        	}
-        }
-
-        int cropWidth = rightX - leftX + 1;
-        int cropHeight = highY - lowY + 1;
-
-        int cropRed[][] = new int [cropWidth][cropHeight];
-        int cropGreen[][] = new int [cropWidth][cropHeight];
-        int cropBlue[][] = new int [cropWidth][cropHeight];
-
-        for (int x = 0; x < cropWidth; ++x) {
-        	for (int y = 0; y < cropHeight; ++y) {
-        		cropRed[x][y] = inputRed[x + leftX][y + lowY];
-        		cropGreen[x][y] = inputGreen[x + leftX][y + lowY];
-        		cropBlue[x][y] = inputBlue[x + leftX][y + lowY];
-        	}
-        }
-
-		ObjectImage img = new ObjectImage();
-		
-		img.width = size;
-		img.height = size;
-
-		img.red = new int [img.width][img.height];
-		img.green = new int [img.width][img.height];
-		img.blue = new int [img.width][img.height];
-
-		Normalization.Standardize(cropRed, img.red, cropWidth, cropHeight, img.width, img.height);
-		Normalization.Standardize(cropGreen, img.green, cropWidth, cropHeight, img.width, img.height);
-		Normalization.Standardize(cropBlue, img.blue, cropWidth, cropHeight, img.width, img.height);
-
-		return img;
-	}
-
-	// +--------------------------------------------+
-	// | Convert red, green and blue into RGB value |
-	// +--------------------------------------------+
-
-	private int RGB(int red, int green, int blue){
-        return (0xff000000) | (red << 16) | (green << 8) | blue;
-    }
-
-    // +-----------------------+
-    // | Write image into file |
-    // +-----------------------+
-
-	private void writeImage(ObjectImage img, String imageName) {
-		BufferedImage outputImage = new BufferedImage(img.width, img.height, BufferedImage.TYPE_INT_RGB);
-        for (int i = 0; i < img.width; ++i) {
-            for (int j = 0; j < img.height; ++j) {
-                outputImage.setRGB(i, j, RGB(img.red[i][j], img.green[i][j], img.blue[i][j]));
-            }
-        }
-        
-        try {
-            ImageIO.write(outputImage, "jpg", new File(imageName));
-        } catch (IOException exc) {
-            System.err.println(exc.toString());
-        }
-	}
-
 }
\ No newline at end of file
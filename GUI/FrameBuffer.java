@@ -0,0 +1,84 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+// Image stored in the pixel array of a TYPE_INT_RGB BufferedImage, so that
+// the algorithms work on the same memory that is displayed. The pixels are
+// row-major, pixel (x, y) is pixels[y * width + x] packed as 0xRRGGBB.
+
+public class FrameBuffer {
+	public int width, height;
+	public int pixels[];
+	public BufferedImage image;
+
+	public FrameBuffer(int width, int height) {
+		this.width = width;
+		this.height = height;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+
+	// Copy of an image of any type, the alpha channel is dropped
+	public FrameBuffer(BufferedImage source) {
+		this(source.getWidth(null), source.getHeight(null));
+		source.getRGB(0, 0, width, height, pixels, 0, width);
+		for (int i = 0; i < pixels.length; ++i) {
+			pixels[i] &= 0x00ffffff;
+		}
+	}
+
+	public static int RGB(int red, int green, int blue) {
+		return (red << 16) | (green << 8) | blue;
+	}
+
+	public static int red(int rgb) {
+		return (rgb >> 16) & 0xff;
+	}
+
+	public static int green(int rgb) {
+		return (rgb >> 8) & 0xff;
+	}
+
+	public static int blue(int rgb) {
+		return rgb & 0xff;
+	}
+
+	public int get(int x, int y) {
+		return pixels[y * width + x];
+	}
+
+	public void set(int x, int y, int rgb) {
+		pixels[y * width + x] = rgb;
+	}
+
+	public int getRed(int x, int y) {
+		return red(pixels[y * width + x]);
+	}
+
+	public int getGreen(int x, int y) {
+		return green(pixels[y * width + x]);
+	}
+
+	public int getBlue(int x, int y) {
+		return blue(pixels[y * width + x]);
+	}
+
+	// Copy all the pixels of an image of the same size
+	public void copyFrom(FrameBuffer source) {
+		System.arraycopy(source.pixels, 0, pixels, 0, pixels.length);
+	}
+
+	// Copy the window [x1, x2] x [y1, y2] of an image of the same size, one row at a time
+	public void copyFrom(FrameBuffer source, int x1, int y1, int x2, int y2) {
+		for (int y = y1; y <= y2; ++y) {
+			System.arraycopy(source.pixels, y * width + x1, pixels, y * width + x1, x2 - x1 + 1);
+		}
+	}
+};
\ No newline at end of file
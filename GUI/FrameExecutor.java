@@ -0,0 +1,95 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs the per-pixel stages of a frame on bands of rows in a ForkJoinPool.
+// A band only writes the pixels of its own rows, and does the work of the
+// stage in the same order as the sequential code, so the result does not
+// depend on the number of bands. Bands start on a multiple of 64 rows: the
+// bit masks store 64 rows of a column in one word, so two bands never write
+// the same word of a mask. With a parallelism of 1 the bands are run one
+// after the other on the calling thread.
+
+public class FrameExecutor {
+
+	// Rows of a word of BinaryMask
+	private static final int bandAlign = 64;
+
+	public interface RowBand {
+		// Work of the rows [y1, y2]
+		public void run(int y1, int y2);
+	}
+
+	private int parallelism;
+	private ForkJoinPool pool;
+
+	public FrameExecutor(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		if (this.parallelism > 1) {
+			pool = new ForkJoinPool(this.parallelism);
+		}
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	// null with a parallelism of 1
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	// +------------------------------------------------------+
+	// | Run band on the rows [0, height - 1], split in bands |
+	// +------------------------------------------------------+
+
+	public void forRows(int height, RowBand band) {
+		int nBlocks = (height + bandAlign - 1) / bandAlign;
+		if ((pool == null) || (nBlocks <= 1)) {
+			band.run(0, height - 1);
+			return;
+		}
+		pool.invoke(new BandTask(band, height, 0, nBlocks));
+	}
+
+	// Blocks [from, to) of bandAlign rows
+	private class BandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final RowBand band;
+		private final int height;
+		private final int from;
+		private final int to;
+
+		BandTask(RowBand band, int height, int from, int to) {
+			this.band = band;
+			this.height = height;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				band.run(from * bandAlign, Math.min(height, to * bandAlign) - 1);
+				return;
+			}
+			int middle = (from + to) / 2;
+			invokeAll(new BandTask(band, height, from, middle), new BandTask(band, height, middle, to));
+		}
+	}
+
+}
\ No newline at end of file
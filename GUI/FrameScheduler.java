@@ -0,0 +1,153 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Paces the frames of a TrackingEngine at a target rate. Frame i is due at
+// a fixed deadline, start + i * period, measured with System.nanoTime, so the
+// rate does not drift with the work of the frames. A frame that is early is
+// held until its deadline; a frame that is late by more than one period is
+// not shown, and optionally not even detected, so that the next frames catch
+// up. After maxSkipped late frames in a row the schedule starts again from
+// the current frame, so that a machine too slow for the rate still shows some.
+// The simulation is paced by the same schedule: a frame is not rendered before
+// one period ahead of its deadline, so the frames reach the display on time
+// instead of running ahead of it.
+
+public class FrameScheduler {
+
+	// Late frames in a row before the schedule starts again
+	private static final int maxSkipped = 10;
+
+	// Period in nanoseconds, 0 for no pacing
+	private long period;
+	private boolean skipDetection;
+
+	// Frame index and time of the start of the schedule
+	private long startIndex = -1;
+	private long startTime;
+
+	// Counters since the first frame
+	private long firstTime;
+	private long nFrames;
+	private long nShown;
+	private long nSkipped;
+	private long nSkippedDetections;
+	private int nLate;
+
+	// framesPerSecond <= 0 never holds nor skips a frame
+	public FrameScheduler(double framesPerSecond) {
+		if (framesPerSecond > 0) {
+			period = (long)(1e9 / framesPerSecond);
+		}
+	}
+
+	// Late frames are also not detected, the Kalman Filters get no measurement for them
+	public void setSkipDetection(boolean skipDetection) {
+		this.skipDetection = skipDetection;
+	}
+
+	// +---------------------------------------------------------------------+
+	// | Decisions for frame index, called once per frame and in frame order |
+	// +---------------------------------------------------------------------+
+
+	// Before the rendering of the frame: waits until one period before its deadline
+	public void pace(long index) {
+		long start;
+		synchronized (this) {
+			if ((period == 0) || (startIndex < 0)) {
+				return;
+			}
+			start = startTime + (index - startIndex - 1) * period;
+		}
+
+		long wait;
+		while ((wait = start - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(wait);
+		}
+	}
+
+	// Before the detection of the frame, false if it should be skipped
+	public synchronized boolean shouldDetect(long index) {
+		if ((!skipDetection) || (!isLate(index, System.nanoTime()))) {
+			return true;
+		}
+		++nSkippedDetections;
+		return false;
+	}
+
+	// Before the display of the frame: waits for its deadline, false if it is too late to be shown
+	public boolean present(long index) {
+		long deadline;
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (nFrames == 0) {
+				firstTime = now;
+			}
+			++nFrames;
+			if ((startIndex < 0) || (nLate >= maxSkipped)) {
+				startIndex = index;
+				startTime = now;
+				nLate = 0;
+			}
+			if (isLate(index, now)) {
+				++nLate;
+				++nSkipped;
+				return false;
+			}
+			nLate = 0;
+			++nShown;
+			deadline = startTime + (index - startIndex) * period;
+		}
+
+		long wait;
+		while ((wait = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(wait);
+		}
+		return true;
+	}
+
+	private boolean isLate(long index, long now) {
+		return (period > 0) && (startIndex >= 0) && (now > startTime + (index - startIndex + 1) * period);
+	}
+
+	// +--------+
+	// | Report |
+	// +--------+
+
+	// Frames per second since the first frame, all of them and the shown ones
+	public synchronized double getFrameRate() {
+		return rate(nFrames);
+	}
+
+	public synchronized double getShownRate() {
+		return rate(nShown);
+	}
+
+	private double rate(long count) {
+		long elapsed = System.nanoTime() - firstTime;
+		if ((nFrames < 2) || (elapsed <= 0)) {
+			return 0.0;
+		}
+		return count * 1e9 / elapsed;
+	}
+
+	public synchronized long getShownCount() {
+		return nShown;
+	}
+
+	// Frames not shown because they were late
+	public synchronized long getSkippedCount() {
+		return nSkipped;
+	}
+
+	public synchronized long getSkippedDetectionCount() {
+		return nSkippedDetections;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import Algorithms.BinaryMask;
+
+import java.util.ArrayList;
+
+// Everything a frame carries from one stage of the pipeline to the next. The
+// slots are allocated once and reused, each stage fills in its own part.
+
+public class FrameSlot {
+	// Number of the frame, from 0
+	public long index;
+
+	// Rendering: the Camera image, the masks of the color classes and the regions changed since the previous frame
+	public FrameBuffer camera;
+	public BinaryMask masks[];
+	public ArrayList<Rectangle> dirty;
+
+	// Detection and tracking
+	public ArrayList<Rectangle> rect_robots;
+	public ArrayList<Rectangle> rect_balls;
+	public ArrayList<Coordinate> estimate_robots;
+	public ArrayList<Coordinate> estimate_balls;
+
+	// nMasks includes the background, masks[0] stays null
+	public FrameSlot(int width, int height, int nMasks) {
+		camera = new FrameBuffer(width, height);
+		masks = new BinaryMask [nMasks];
+		for (int c = 1; c < nMasks; ++c) {
+			masks[c] = new BinaryMask(width, height);
+		}
+		dirty = new ArrayList<>();
+	}
+};
\ No newline at end of file
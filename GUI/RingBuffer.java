@@ -0,0 +1,127 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded queue of frames between two threads, stored in a circular array of
+// fixed capacity. When the queue is full, put either waits for the consumer
+// (BLOCK) or drops the oldest frame of the queue (DROP_OLDEST) and returns it
+// so that the producer can reuse it. The frames themselves are allocated once
+// by the owner and only their references go around.
+
+public class RingBuffer<T> {
+
+	public static final int BLOCK = 0;
+	public static final int DROP_OLDEST = 1;
+
+	private Object items[];
+	private int policy;
+
+	// Oldest item and number of items in the queue
+	private int head;
+	private int count;
+
+	private boolean closed;
+	private long nDropped;
+
+	private ReentrantLock lock = new ReentrantLock();
+	private Condition notEmpty = lock.newCondition();
+	private Condition notFull = lock.newCondition();
+
+	public RingBuffer(int capacity, int policy) {
+		items = new Object [Math.max(1, capacity)];
+		this.policy = policy;
+	}
+
+	// +-----------------------------------------------+
+	// | Add an item, returns the dropped item or null |
+	// +-----------------------------------------------+
+
+	public T put(T item) throws InterruptedException {
+		lock.lock();
+		try {
+			T dropped = null;
+			while (count == items.length) {
+				if (policy == DROP_OLDEST) {
+					dropped = removeFirst();
+					++nDropped;
+					break;
+				}
+				notFull.await();
+			}
+			items[(head + count) % items.length] = item;
+			++count;
+			notEmpty.signal();
+			return dropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// +-------------------------------------------------------------------+
+	// | Remove the oldest item, waits for one, null once closed and empty |
+	// +-------------------------------------------------------------------+
+
+	public T take() throws InterruptedException {
+		lock.lock();
+		try {
+			while ((count == 0) && (!closed)) {
+				notEmpty.await();
+			}
+			if (count == 0) {
+				return null;
+			}
+			T item = removeFirst();
+			notFull.signal();
+			return item;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// The consumer gets the items left, then null
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Number of items dropped by put since the creation
+	public long getDroppedCount() {
+		lock.lock();
+		try {
+			return nDropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T removeFirst() {
+		T item = (T) items[head];
+		items[head] = null;
+		head = (head + 1) % items.length;
+		--count;
+		return item;
+	}
+
+}
\ No newline at end of file
@@ -8,9 +8,7 @@ package GUI;
 
 import java.awt.Color;
 import java.awt.Image;
-import java.awt.image.BufferedImage;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 
@@ -19,6 +17,7 @@ import javax.swing.JLabel;
 import javax.swing.JComboBox;
 import javax.swing.JButton;
 import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -29,6 +28,15 @@ public class ShowFrame extends JFrame {
 	private int heightFrame;
 	private JButton pictureButton;
 
+	// Two images for the frame: the frame buffers are copied into the back one
+	// while the event dispatch thread paints the front one, then they are swapped
+	private FrameBuffer displays[] = new FrameBuffer [2];
+	private ImageIcon icons[] = new ImageIcon [2];
+	private int back = 0;
+
+	// The last swap has not run on the event dispatch thread yet
+	private boolean swapPending = false;
+
     // Randomization
     private Random rand = new Random();
 
@@ -49,55 +57,102 @@ public class ShowFrame extends JFrame {
         setVisible(true);
 	}
 
-	private int RGB(int red, int green, int blue){
-        return (0xff000000) | (red << 16) | (green << 8) | blue;
-    }
+	// +---------------------------------------------------------------+
+	// | Show a frame buffer, one copy of its pixels and no conversion |
+	// +---------------------------------------------------------------+
 
-	public void drawPicture(ObjectImage img) {
-		BufferedImage outputImage = new BufferedImage(img.width, img.height, BufferedImage.TYPE_INT_RGB);
-        for (int i = 0; i < img.width; ++i) {
-            for (int j = 0; j < img.height; ++j) {
-                outputImage.setRGB(i, j, RGB(img.red[i][j], img.green[i][j], img.blue[i][j]));
-            }
-        }
+	public void drawPicture(FrameBuffer img) {
+		if (copyDisplay(img) == null) {
+			return;
+		}
+		showDisplay();
+	}
 
-		pictureButton.setBounds(0, 0, widthFrame, heightFrame);
-        pictureButton.setIcon(new ImageIcon(outputImage.getScaledInstance(widthFrame, heightFrame, Image.SCALE_DEFAULT)));
+	public void drawPicture(FrameBuffer img, ArrayList<Coordinate> estimate_robots, ArrayList<Coordinate> estimate_balls) {
+		FrameBuffer display = copyDisplay(img);
+		if (display == null) {
+			return;
+		}
+
+		// The labels are drawn on the copy, the frame buffer is left as it is
+		Graphics2D g2d = display.image.createGraphics();
+		g2d.setFont(new Font("Serif", Font.BOLD, 10));
+		g2d.setPaint(Color.ORANGE);
+
+		for (int i = 0; i < estimate_robots.size(); ++i) {
+			g2d.drawString("Robot " + Integer.toString(i + 1), estimate_robots.get(i).x, estimate_robots.get(i).y);
+		}
+
+		for (int i = 0; i < estimate_balls.size(); ++i) {
+			g2d.drawString("Ball " + Integer.toString(i + 1), estimate_balls.get(i).x, estimate_balls.get(i).y);
+		}
+
+		g2d.dispose();
+
+		showDisplay();
+	}
+
+	// Copies into the back image once it is no longer painted, null if interrupted
+	private FrameBuffer copyDisplay(FrameBuffer img) {
+		synchronized (this) {
+			try {
+				while (swapPending) {
+					wait();
+				}
+			} catch (InterruptedException exc) {
+				System.err.println(exc.toString());
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+
+		FrameBuffer display = displays[back];
+		if ((display == null) || (display.width != img.width) || (display.height != img.height)) {
+			display = new FrameBuffer(img.width, img.height);
+			displays[back] = display;
+			icons[back] = null;
+		}
+		display.copyFrom(img);
+		return display;
 	}
 
-    public void drawPicture(ObjectImage img, ArrayList<Coordinate> estimate_robots, ArrayList<Coordinate> estimate_balls) {
-        BufferedImage outputImage = new BufferedImage(img.width, img.height, BufferedImage.TYPE_INT_RGB);
-        for (int i = 0; i < img.width; ++i) {
-            for (int j = 0; j < img.height; ++j) {
-                outputImage.setRGB(i, j, RGB(img.red[i][j], img.green[i][j], img.blue[i][j]));
-            }
-        }
-
-        Graphics2D g2d = outputImage.createGraphics();
-        g2d.setFont(new Font("Serif", Font.BOLD, 10));
-
-        for (int i = 0; i < estimate_robots.size(); ++i) {
-            int x = estimate_robots.get(i).x;
-            int y = estimate_robots.get(i).y;
-            String str = "Robot " + Integer.toString(i + 1);
-            FontMetrics fm = g2d.getFontMetrics();
-            g2d.setPaint(Color.ORANGE);
-            g2d.drawString(str, x, y);
-        }
-
-        for (int i = 0; i < estimate_balls.size(); ++i) {
-            int x = estimate_balls.get(i).x;
-            int y = estimate_balls.get(i).y;
-            String str = "Ball " + Integer.toString(i + 1);
-            FontMetrics fm = g2d.getFontMetrics();
-            g2d.setPaint(Color.ORANGE);
-            g2d.drawString(str, x, y);
-        }
-
-        g2d.dispose();
-
-        pictureButton.setBounds(0, 0, widthFrame, heightFrame);
-        pictureButton.setIcon(new ImageIcon(outputImage.getScaledInstance(widthFrame, heightFrame, Image.SCALE_DEFAULT)));
-    }
+	// Makes the back image the front one on the event dispatch thread
+	private void showDisplay() {
+		final int front = back;
+		back = 1 - back;
+
+		synchronized (this) {
+			swapPending = true;
+		}
+		if (SwingUtilities.isEventDispatchThread()) {
+			swapDisplay(front);
+		} else {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					swapDisplay(front);
+				}
+			});
+		}
+	}
+
+	// The image is the icon itself when it has the size of the frame
+	private void swapDisplay(int front) {
+		FrameBuffer display = displays[front];
+		pictureButton.setBounds(0, 0, widthFrame, heightFrame);
+		if ((display.width != widthFrame) || (display.height != heightFrame)) {
+			pictureButton.setIcon(new ImageIcon(display.image.getScaledInstance(widthFrame, heightFrame, Image.SCALE_DEFAULT)));
+		} else {
+			if (icons[front] == null) {
+				icons[front] = new ImageIcon(display.image);
+			}
+			pictureButton.setIcon(icons[front]);
+		}
+
+		synchronized (this) {
+			swapPending = false;
+			notifyAll();
+		}
+	}
 
 }
\ No newline at end of file
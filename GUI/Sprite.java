@@ -0,0 +1,85 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+// Sprite compiled once from an image whose white pixels are transparent. Every
+// row is cut into spans of opaque pixels, and the packed pixels of all the
+// spans are stored one after the other, so drawing the sprite is one array
+// copy per span without testing any pixel.
+
+public class Sprite {
+	public int width, height;
+
+	// Span i is the pixels [spanStart[i], spanStart[i] + spanLength[i] - 1] of row spanRow[i],
+	// they are pixels[spanOffset[i] ..] packed as 0xRRGGBB
+	public int nSpans;
+	public int spanRow[];
+	public int spanStart[];
+	public int spanLength[];
+	public int spanOffset[];
+	public int pixels[];
+
+	public Sprite(ObjectImage img) {
+		width = img.width;
+		height = img.height;
+
+		int nPixels = 0;
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				if (isOpaque(img, x, y)) {
+					if ((x == 0) || (!isOpaque(img, x - 1, y))) {
+						++nSpans;
+					}
+					++nPixels;
+				}
+			}
+		}
+
+		spanRow = new int [nSpans];
+		spanStart = new int [nSpans];
+		spanLength = new int [nSpans];
+		spanOffset = new int [nSpans];
+		pixels = new int [nPixels];
+
+		int n = 0;
+		int offset = 0;
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				if (!isOpaque(img, x, y)) {
+					continue;
+				}
+				if ((x == 0) || (!isOpaque(img, x - 1, y))) {
+					spanRow[n] = y;
+					spanStart[n] = x;
+					spanOffset[n] = offset;
+					++n;
+				}
+				++spanLength[n - 1];
+				pixels[offset++] = FrameBuffer.RGB(img.red[x][y], img.green[x][y], img.blue[x][y]);
+			}
+		}
+	}
+
+	private boolean isOpaque(ObjectImage img, int x, int y) {
+		return (img.red[x][y] != 255) || (img.green[x][y] != 255) || (img.blue[x][y] != 255);
+	}
+
+	// Draw the sprite with its top-left corner at (u, v), it must lie inside target
+	public void draw(FrameBuffer target, int u, int v) {
+		draw(target, u, v, v, v + height - 1);
+	}
+
+	// Same, only the rows [y1, y2] of target
+	public void draw(FrameBuffer target, int u, int v, int y1, int y2) {
+		for (int i = 0; i < nSpans; ++i) {
+			int y = v + spanRow[i];
+			if ((y >= y1) && (y <= y2)) {
+				System.arraycopy(pixels, spanOffset[i], target.pixels, y * target.width + u + spanStart[i], spanLength[i]);
+			}
+		}
+	}
+};
\ No newline at end of file
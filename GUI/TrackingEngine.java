@@ -0,0 +1,865 @@
+// Program: Final Project in Robotics and AI
+// Author: Hy Truong Son
+// Major: PhD Student in Machine Learning
+// Institution: Departmnet of Computer Science, The University of Chicago
+// Email: hytruongson@uchicago.edu
+
+package GUI;
+
+import Algorithms.Normalization;
+import Algorithms.ColorClass;
+import Algorithms.ConnectedComponent;
+import Algorithms.DetectorRegistry;
+import Algorithms.RegionOfInterest;
+import Algorithms.KalmanFilter;
+
+import javax.imageio.ImageIO;
+import javax.swing.JOptionPane;
+
+import java.io.File;
+import java.io.IOException;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Random;
+
+// Simulation and tracking of the Robots and the Balls without any window:
+// every frame moves the objects, renders the Camera image, classifies it,
+// detects the objects and updates their Kalman Filters. step() does one frame
+// on the calling thread; run() does many in a pipeline of threads (rendering,
+// tracking, and delivery on the calling thread). A listener, such as Agent
+// for the display, receives every frame delivered.
+
+public class TrackingEngine {
+
+	public interface FrameListener {
+		// slot is reused for another frame once this returns
+		public void frameTracked(FrameSlot slot);
+	}
+
+	// Field image
+	private FrameBuffer fieldImage;
+
+	// Robot image
+	private ObjectImage robotImage;
+
+	// Ball image
+	private ObjectImage ballImage; 
+
+	// Robot and Ball images compiled into spans of opaque pixels
+	private Sprite robotSprite;
+	private Sprite ballSprite;
+
+	// Step size in pixels
+	private int step;
+
+	// Probability of changing direction
+	private int changeDirPercent;
+
+	// Input from Camera
+	private FrameBuffer camera;
+
+	// Color classes to detect, with the background subtraction and color detections from input camera (one bit mask per class)
+	private DetectorRegistry detectors;
+
+	// Ids of the color classes of Robots and Balls in the detections
+	private int robotClass;
+	private int ballClass;
+
+	// Footprints of the sprites drawn in the Camera image
+	private ArrayList<Rectangle> sprites;
+
+	// Regions of the Camera image changed in this frame: the previous and the current footprints
+	private ArrayList<Rectangle> dirty;
+
+	// The first frame is generated in full, the next ones only in the dirty regions
+	private boolean fullFrame = true;
+
+	// Number of frames rendered, and of the frames dropped before the listener
+	private long nFrames = 0;
+	private long nDropped = 0;
+
+	// Slots not in use, frames rendered and waiting for the detection, frames tracked and waiting for the listener
+	private RingBuffer<FrameSlot> freeSlots;
+	private RingBuffer<FrameSlot> rendered;
+	private RingBuffer<FrameSlot> tracked;
+
+	// Slot of the frames of step()
+	private FrameSlot stepSlot;
+
+	// Receives every frame delivered, may be null
+	private FrameListener listener;
+
+	// Paces the frames delivered to the listener, may be null
+	private FrameScheduler scheduler;
+
+	// Estimates of the last frame delivered
+	private ArrayList<Coordinate> estimate_robots;
+	private ArrayList<Coordinate> estimate_balls;
+
+	// Number of robots
+	private int nRobots;
+
+	// Number of balls
+	private int nBalls;
+
+	// Robot ground-truth positions
+	private ArrayList < Coordinate > robots;
+
+	// Ball ground-truth positions
+	private ArrayList < Coordinate > balls;
+
+	// Moving directions of robots
+	private ArrayList < Integer > dir_robots;
+
+	// Moving directions of balls
+	private ArrayList < Integer > dir_balls;
+
+	// Search windows around the predicted objects
+	private RegionOfInterest roi;
+
+	// Kalman Filter 1 for Robots
+	private KalmanFilter robot_kalmanFilter;
+
+	// Kalman Filter 2 for Balls
+	private KalmanFilter ball_kalmanFilter;
+
+	// Boolean variable to determine to use Kalman Filter or not
+	private boolean useKF;
+
+	// Motion model noise
+	private double motionNoise;
+
+	// Measurement noise
+	private double measurementNoise;
+
+	// Tolerance on the change of the Kalman gain to switch to its steady state
+	private final double steadyTolerance = 1e-9;
+
+	// Gate radius of the association, in steps beyond the object size
+	private final int gateSteps = 2;
+
+	// Time budget of the association per frame in milliseconds
+	private final int matchingBudget = 5;
+
+	// Only the windows around the predicted objects are labeled, except one frame every fullScanPeriod
+	private final int fullScanPeriod = 30;
+
+	// Downsampling of the masks to find the candidate objects first (they are at least 50 pixels wide), 1 labels the masks directly
+	private final int pyramidFactor = 1;
+
+	// Threads of the per-pixel stages of a frame, 1 runs them on the simulation thread
+	private final int parallelism;
+
+	// Bands of rows of the per-pixel stages
+	private FrameExecutor executor;
+
+	// Frames waiting between two stages of the pipeline
+	private final int pipelineDepth = 2;
+
+	// When the listener falls behind in run(): RingBuffer.BLOCK slows down the simulation, RingBuffer.DROP_OLDEST skips frames
+	private int backpressure = RingBuffer.BLOCK;
+
+	// Directions
+	private final int nDir = 8;
+	private final int DX[] = {-1, 1, 0, 0, -1, -1, 1, 1};
+	private final int DY[] = {0, 0, -1, 1, -1, 1, -1, 1};
+
+	// Randomization
+	private Random rand = new Random();
+
+	// +-------------+
+	// | Constructor |
+	// +-------------+
+
+	public TrackingEngine(int nRobots, int robotSize, int nBalls, int ballSize, String fieldImageName, String robotImageName, String ballImageName, int step, int changeDirPercent, boolean useKF, double motionNoise, double measurementNoise, int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+
+		fieldImage = getImage(fieldImageName);
+		robotImage = getImage(robotImageName, robotSize);
+		ballImage = getImage(ballImageName, ballSize);
+
+		robotSprite = new Sprite(robotImage);
+		ballSprite = new Sprite(ballImage);
+
+		this.nRobots = nRobots;
+		this.nBalls = nBalls;
+
+		camera = new FrameBuffer(fieldImage.width, fieldImage.height);
+
+		sprites = new ArrayList<>();
+		dirty = new ArrayList<>();
+
+		executor = new FrameExecutor(this.parallelism);
+
+		// Balls are red, Robots are everything else that differs from the field
+		detectors = new DetectorRegistry(fieldImage.width, fieldImage.height, executor.getPool());
+
+		ColorClass ball = new ColorClass("Ball", 150, 255, 0, 50, 0, 50);
+		ball.displayRed = 255;
+		ball.displayGreen = 0;
+		ball.displayBlue = 0;
+		ballClass = detectors.register(ball);
+
+		ColorClass robot = new ColorClass("Robot", 0, 255, 0, 255, 0, 255);
+		robot.minWidth = 50;
+		robot.minHeight = 50;
+		robot.minArea = 1000;
+		robotClass = detectors.register(robot);
+
+		detectors.getLabeling().setPyramid(pyramidFactor);
+		roi = new RegionOfInterest(fieldImage.width, fieldImage.height, fullScanPeriod);
+
+		this.step = step;
+		this.changeDirPercent = changeDirPercent;
+		this.motionNoise = motionNoise;
+		this.measurementNoise = measurementNoise;
+		this.useKF = useKF;
+
+		// Randomly initialize the Robots positions
+		initPositions();
+
+		// Initialize the Kalman Filter for Robots
+		robot_kalmanFilter = new KalmanFilter(this.nRobots, robots, (double)(step), motionNoise, measurementNoise, true);
+
+		// Initialize the Kalman Filter for Balls
+		ball_kalmanFilter = new KalmanFilter(this.nBalls, balls, (double)(step), motionNoise, measurementNoise, true);
+
+		// The models never change, so reuse the gains once they have converged
+		robot_kalmanFilter.enableSteadyState(steadyTolerance);
+		ball_kalmanFilter.enableSteadyState(steadyTolerance);
+
+		// Only associate the measurements within reach of an object in one frame
+		robot_kalmanFilter.setGating(robotImage.width + gateSteps * step);
+		ball_kalmanFilter.setGating(ballImage.width + gateSteps * step);
+
+		// Bound the association time of every frame, even with a burst of detections
+		robot_kalmanFilter.setMatchingBudget(matchingBudget * 1000000L);
+		ball_kalmanFilter.setMatchingBudget(matchingBudget * 1000000L);
+
+		stepSlot = new FrameSlot(fieldImage.width, fieldImage.height, detectors.getClassCount() + 1);
+		estimate_robots = new ArrayList<>();
+		estimate_balls = new ArrayList<>();
+	}
+
+	public void setListener(FrameListener listener) {
+		this.listener = listener;
+	}
+
+	// Without a scheduler every frame is delivered as soon as it is tracked
+	public void setScheduler(FrameScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	// RingBuffer.BLOCK or RingBuffer.DROP_OLDEST, for the frames of run()
+	public void setBackpressure(int backpressure) {
+		this.backpressure = backpressure;
+	}
+
+	public int getWidth() {
+		return fieldImage.width;
+	}
+
+	public int getHeight() {
+		return fieldImage.height;
+	}
+
+	public DetectorRegistry getDetectors() {
+		return detectors;
+	}
+
+	public FrameExecutor getExecutor() {
+		return executor;
+	}
+
+	// Ground-truth positions of the last frame rendered
+	public ArrayList<Coordinate> getRobots() {
+		return copyOf(robots, null);
+	}
+
+	public ArrayList<Coordinate> getBalls() {
+		return copyOf(balls, null);
+	}
+
+	// Estimated positions of the last frame delivered
+	public ArrayList<Coordinate> getEstimatedRobots() {
+		return copyOf(estimate_robots, null);
+	}
+
+	public ArrayList<Coordinate> getEstimatedBalls() {
+		return copyOf(estimate_balls, null);
+	}
+
+	public long getFrameCount() {
+		return nFrames;
+	}
+
+	// Frames tracked but not delivered with RingBuffer.DROP_OLDEST
+	public long getDroppedCount() {
+		RingBuffer<FrameSlot> ring = tracked;
+		return nDropped + ((ring == null) ? 0 : ring.getDroppedCount());
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	// +----------------------------------------------+
+	// | One frame on the calling thread, no pipeline |
+	// +----------------------------------------------+
+
+	// The slot is reused by the next step
+	public FrameSlot step() {
+		renderFrame(stepSlot);
+		trackFrame(stepSlot);
+		deliver(stepSlot);
+		return stepSlot;
+	}
+
+	// +--------------------------------------------------------------------------+
+	// | Pipeline of nFrames frames (forever if negative): render, track, deliver |
+	// +--------------------------------------------------------------------------+
+
+	public void run(long nFrames) {
+		// Slots of the frames in the pipeline: one in every stage and pipelineDepth in every ring
+		if (freeSlots == null) {
+			freeSlots = new RingBuffer<>(2 * pipelineDepth + 3, RingBuffer.BLOCK);
+			try {
+				for (int i = 0; i < 2 * pipelineDepth + 3; ++i) {
+					freeSlots.put(new FrameSlot(fieldImage.width, fieldImage.height, detectors.getClassCount() + 1));
+				}
+			} catch (InterruptedException exc) {
+				System.err.println(exc.toString());
+				return;
+			}
+		}
+		if (tracked != null) {
+			nDropped += tracked.getDroppedCount();
+		}
+		rendered = new RingBuffer<>(pipelineDepth, RingBuffer.BLOCK);
+		tracked = new RingBuffer<>(pipelineDepth, backpressure);
+
+		// Rendering and tracking run on their own threads, the delivery on this one
+		Thread renderer = new Thread(() -> renderLoop(nFrames), "Render");
+		Thread tracker = new Thread(() -> trackLoop(), "Track");
+		renderer.setDaemon(true);
+		tracker.setDaemon(true);
+		renderer.start();
+		tracker.start();
+
+		try {
+			FrameSlot slot;
+			while ((slot = tracked.take()) != null) {
+				deliver(slot);
+				freeSlots.put(slot);
+			}
+			renderer.join();
+			tracker.join();
+		} catch (InterruptedException exc) {
+			System.err.println(exc.toString());
+			renderer.interrupt();
+			tracker.interrupt();
+		}
+	}
+
+	private void renderLoop(long nFrames) {
+		try {
+			for (long i = 0; (nFrames < 0) || (i < nFrames); ++i) {
+				FrameSlot slot = freeSlots.take();
+				if (scheduler != null) {
+					scheduler.pace(this.nFrames);
+				}
+				renderFrame(slot);
+				rendered.put(slot);
+			}
+		} catch (InterruptedException exc) {
+			System.err.println(exc.toString());
+		}
+		rendered.close();
+	}
+
+	// Every rendered frame is tracked, the Kalman Filters must not miss any
+	private void trackLoop() {
+		try {
+			FrameSlot slot;
+			while ((slot = rendered.take()) != null) {
+				trackFrame(slot);
+				FrameSlot dropped = tracked.put(slot);
+				if (dropped != null) {
+					freeSlots.put(dropped);
+				}
+			}
+		} catch (InterruptedException exc) {
+			System.err.println(exc.toString());
+		}
+		tracked.close();
+	}
+
+	// The estimates are always kept, the listener only gets the frames on time
+	private void deliver(FrameSlot slot) {
+		estimate_robots = copyOf(slot.estimate_robots, estimate_robots);
+		estimate_balls = copyOf(slot.estimate_balls, estimate_balls);
+		if ((scheduler != null) && (!scheduler.present(slot.index))) {
+			return;
+		}
+		if (listener != null) {
+			listener.frameTracked(slot);
+		}
+	}
+
+	// Move the Robots and the Balls, generate the Camera image and its masks, and copy them into slot
+	private void renderFrame(FrameSlot slot) {
+		genPositions();
+		genCamera();
+		genFilter();
+		fullFrame = false;
+
+		slot.index = nFrames++;
+		slot.camera.copyFrom(camera);
+		for (int c = 1; c <= detectors.getClassCount(); ++c) {
+			slot.masks[c].copyFrom(detectors.getMasks()[c]);
+		}
+		slot.dirty.clear();
+		slot.dirty.addAll(dirty);
+	}
+
+	// Detect the objects in the masks of slot and update their positions by Kalman Filter
+	private void trackFrame(FrameSlot slot) {
+		if ((scheduler != null) && (!scheduler.shouldDetect(slot.index))) {
+			// Late frame, the Kalman Filters only predict the objects
+			slot.rect_robots = new ArrayList<>();
+			slot.rect_balls = new ArrayList<>();
+			if (useKF) {
+				slot.estimate_robots = copyOf(robot_kalmanFilter.predict_on(), slot.estimate_robots);
+				slot.estimate_balls = copyOf(ball_kalmanFilter.predict_on(), slot.estimate_balls);
+			} else {
+				slot.estimate_robots = copyOf(robot_kalmanFilter.predict_off(), slot.estimate_robots);
+				slot.estimate_balls = copyOf(ball_kalmanFilter.predict_off(), slot.estimate_balls);
+			}
+			return;
+		}
+
+		// Connected components of every color class around the predicted objects
+		roi.addTracks(robot_kalmanFilter, robotImage.width / 2 + gateSteps * step, robotImage.height / 2 + gateSteps * step);
+		roi.addTracks(ball_kalmanFilter, ballImage.width / 2 + gateSteps * step, ballImage.height / 2 + gateSteps * step);
+		ArrayList<ConnectedComponent> components = roi.label(detectors.getLabeling(), slot.masks);
+
+		// Detections of every color class
+		ArrayList<ArrayList<Rectangle>> rects = detectors.select(components);
+
+		// Robots detection
+		slot.rect_robots = rects.get(robotClass);
+
+		// Balls detection
+		slot.rect_balls = rects.get(ballClass);
+
+		// Update the new Robots positions by Kalman Filter
+		if (useKF) {
+			slot.estimate_robots = copyOf(robot_kalmanFilter.filter_on(slot.rect_robots), slot.estimate_robots);
+		} else {
+			slot.estimate_robots = copyOf(robot_kalmanFilter.filter_off(slot.rect_robots), slot.estimate_robots);
+		}
+
+		// Update the new Balls positions by Kalman Filter
+		if (useKF) {
+			slot.estimate_balls = copyOf(ball_kalmanFilter.filter_on(slot.rect_balls), slot.estimate_balls);
+		} else {
+			slot.estimate_balls = copyOf(ball_kalmanFilter.filter_off(slot.rect_balls), slot.estimate_balls);
+		}
+	}
+
+	// Copy the coordinates of source into target (a new list if null), the Kalman Filters update their estimates in place
+	private ArrayList<Coordinate> copyOf(ArrayList<Coordinate> source, ArrayList<Coordinate> target) {
+		if (target == null) {
+			target = new ArrayList<>();
+		}
+		while (target.size() > source.size()) {
+			target.remove(target.size() - 1);
+		}
+		while (target.size() < source.size()) {
+			target.add(new Coordinate(0, 0));
+		}
+		for (int i = 0; i < source.size(); ++i) {
+			target.get(i).x = source.get(i).x;
+			target.get(i).y = source.get(i).y;
+		}
+		return target;
+	}
+	// +-----------------------------------+
+	// | Generate a synthetic Camera image |
+	// +-----------------------------------+
+
+	private void genCamera() {
+		dirty.clear();
+		if (!fullFrame) {
+			// The sprites of the previous frame are erased
+			dirty.addAll(sprites);
+		}
+		sprites.clear();
+
+		for (int i = 0; i < nBalls; ++i) {
+			int u = balls.get(i).x - ballImage.width / 2;
+			int v = balls.get(i).y - ballImage.height / 2;
+			sprites.add(new Rectangle(u, v, u + ballImage.width - 1, v + ballImage.height - 1));
+		}
+
+		for (int i = 0; i < nRobots; ++i) {
+			int u = robots.get(i).x - robotImage.width / 2;
+			int v = robots.get(i).y - robotImage.height / 2;
+			sprites.add(new Rectangle(u, v, u + robotImage.width - 1, v + robotImage.height - 1));
+		}
+
+		int nErased = dirty.size();
+		dirty.addAll(sprites);
+
+		executor.forRows(camera.height, (y1, y2) -> drawCamera(nErased, y1, y2));
+	}
+
+	// Rows [y1, y2] of the Camera image, the first nErased dirty regions are erased
+	private void drawCamera(int nErased, int y1, int y2) {
+		if (fullFrame) {
+			camera.copyFrom(fieldImage, 0, y1, camera.width - 1, y2);
+		} else {
+			for (int i = 0; i < nErased; ++i) {
+				Rectangle rect = dirty.get(i);
+				camera.copyFrom(fieldImage, rect.top.x, Math.max(y1, rect.top.y), rect.bottom.x, Math.min(y2, rect.bottom.y));
+			}
+		}
+
+		// Balls first, then Robots on top of them
+		for (int i = 0; i < sprites.size(); ++i) {
+			Sprite sprite = (i < nBalls) ? ballSprite : robotSprite;
+			sprite.draw(camera, sprites.get(i).top.x, sprites.get(i).top.y, y1, y2);
+		}
+	}
+
+	// +----------------------------------------------------------------+
+	// | From the Camera image, filter background, red and white colors |
+	// +----------------------------------------------------------------+
+
+	private void genFilter() {
+		executor.forRows(camera.height, (y1, y2) -> filterRows(y1, y2));
+	}
+
+	private void filterRows(int y1, int y2) {
+		if (fullFrame) {
+			detectors.classify(camera, fieldImage, 0, y1, camera.width - 1, y2);
+			return;
+		}
+
+		// Only the pixels of the dirty regions may have changed
+		for (int i = 0; i < dirty.size(); ++i) {
+			Rectangle rect = dirty.get(i);
+			int top = Math.max(y1, rect.top.y);
+			int bottom = Math.min(y2, rect.bottom.y);
+			if (top <= bottom) {
+				detectors.classify(camera, fieldImage, rect.top.x, top, rect.bottom.x, bottom);
+			}
+		}
+	}
+
+	// +--------------------------------------------------------------------+
+	// | Randomize the initial positions and directions of Robots and Balls |
+	// +--------------------------------------------------------------------+
+
+	private void initPositions() {
+		robots = new ArrayList<>();
+		dir_robots = new ArrayList<>();
+
+		balls = new ArrayList<>();
+		dir_balls = new ArrayList<>();
+
+		for (int i = 0; i < nRobots; ++i) {
+			while (true) {
+				int x = Math.abs(rand.nextInt()) % fieldImage.width;
+				int y = Math.abs(rand.nextInt()) % fieldImage.height;
+
+				if (x - robotImage.width / 2 < 0) {
+					continue;
+				} 
+				if (x + robotImage.width / 2 >= fieldImage.width) {
+					continue;
+				}
+				if (y - robotImage.height / 2 < 0) {
+					continue;
+				} 
+				if (y + robotImage.height / 2 >= fieldImage.height) {
+					continue;
+				}
+
+				robots.add(new Coordinate(x, y));
+				break;
+			}
+
+			dir_robots.add(Math.abs(rand.nextInt()) % nDir);
+		}
+
+		for (int i = 0; i < nBalls; ++i) {
+			while (true) {
+				int x = Math.abs(rand.nextInt()) % fieldImage.width;
+				int y = Math.abs(rand.nextInt()) % fieldImage.height;
+
+				if (x - ballImage.width / 2 < 0) {
+					continue;
+				} 
+				if (x + ballImage.width / 2 >= fieldImage.width) {
+					continue;
+				}
+				if (y - ballImage.height / 2 < 0) {
+					continue;
+				} 
+				if (y + ballImage.height / 2 >= fieldImage.height) {
+					continue;
+				}
+
+				balls.add(new Coordinate(x, y));
+				break;
+			}
+
+			dir_balls.add(Math.abs(rand.nextInt()) % nDir);
+		}
+	}
+
+	// +--------------------------------------------------------------------------+
+	// | Randomize the orientations, then moving the robots and balls accordingly |
+	// +--------------------------------------------------------------------------+
+
+	private void genPositions() {
+		for (int i = 0; i < nRobots; ++i) {
+			while (true) {
+				int d = dir_robots.get(i);
+				if (Math.abs(rand.nextInt()) % 100 <= changeDirPercent) {
+					d = Math.abs(rand.nextInt()) % nDir;
+				}
+
+				int x = robots.get(i).x + DX[d] * step;
+				int y = robots.get(i).y + DY[d] * step;
+
+				if (x - robotImage.width / 2 < 0) {
+					continue;
+				} 
+				if (x + robotImage.width / 2 >= fieldImage.width) {
+					continue;
+				}
+				if (y - robotImage.height / 2 < 0) {
+					continue;
+				} 
+				if (y + robotImage.height / 2 >= fieldImage.height) {
+					continue;
+				}
+
+				dir_robots.set(i, d);
+				robots.set(i, new Coordinate(x, y));
+				break;
+			}
+		}
+
+		for (int i = 0; i < nBalls; ++i) {
+			while (true) {
+				int d = dir_balls.get(i);
+				if (Math.abs(rand.nextInt()) % 100 <= changeDirPercent) {
+					d = Math.abs(rand.nextInt()) % nDir;
+				}
+
+				int x = balls.get(i).x + DX[d] * step;
+				int y = balls.get(i).y + DY[d] * step;
+
+				if (x - ballImage.width / 2 < 0) {
+					continue;
+				} 
+				if (x + ballImage.width / 2 >= fieldImage.width) {
+					continue;
+				}
+				if (y - ballImage.height / 2 < 0) {
+					continue;
+				} 
+				if (y + ballImage.height / 2 >= fieldImage.height) {
+					continue;
+				}
+
+				dir_balls.set(i, d);
+				balls.set(i, new Coordinate(x, y));
+				break;
+			}
+		}
+	}
+
+	// +------------------------+
+	// | Read images from files |
+	// +------------------------+
+
+	private FrameBuffer getImage(String imageName) {
+		BufferedImage inputImage = null;
+        try {
+            inputImage = ImageIO.read(new File(imageName));
+        } catch (IOException exc) {
+            System.err.println(exc.toString());
+            if (!GraphicsEnvironment.isHeadless()) {
+                JOptionPane.showMessageDialog(null, "Cannot find the image " + imageName);
+            }
+        }
+
+		return new FrameBuffer(inputImage);
+	}
+
+	// +------------------------------------------------------+
+	// | Extract the white-color background from input images |
+	// +------------------------------------------------------+
+
+	private boolean isNotWhite(int red, int green, int blue) {
+		if ((red != 255) || (green != 255) || (blue != 255)) {
+			return true;
+		}
+		return false;
+	}
+
+	// +--------------------------------------------------------------------------+
+	// | Read image from file, then remove the white-color background, and resize |
+	// +--------------------------------------------------------------------------+
+
+	private ObjectImage getImage(String imageName, int size) {
+		BufferedImage inputImage = null;
+        try {
+            inputImage = ImageIO.read(new File(imageName));
+        } catch (IOException exc) {
+            System.err.println(exc.toString());
+            if (!GraphicsEnvironment.isHeadless()) {
+                JOptionPane.showMessageDialog(null, "Cannot find the image " + imageName);
+            }
+        }
+
+        int inputWidth = inputImage.getWidth(null);
+        int inputHeight = inputImage.getHeight(null);
+
+        int inputRed[][] = new int [inputWidth][inputHeight];
+        int inputGreen[][] = new int [inputWidth][inputHeight];
+        int inputBlue[][] = new int [inputWidth][inputHeight];
+
+        for (int i = 0; i < inputWidth; ++i) {
+            for (int j = 0; j < inputHeight; ++j) {
+                int RGB = inputImage.getRGB(i, j);
+                inputRed[i][j] = (RGB & 0x00ff0000) >> 16;
+                inputGreen[i][j] = (RGB & 0x0000ff00) >> 8;
+                inputBlue[i][j] = RGB & 0x000000ff;
+            }
+        }
+
+        int leftX = 0;
+        for (int x = 0; x < inputWidth; ++x) {
+        	boolean found = false;
+        	for (int y = 0; y < inputHeight; ++y) {
+        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
+        			found = true;
+        			break;
+        		}
+        	}
+        	if (found) {
+        		leftX = x;
+        		break;
+        	}
+        }
+
+        int rightX = inputWidth - 1;
+        for (int x = inputWidth - 1; x >= 0; --x) {
+        	boolean found = false;
+        	for (int y = 0; y < inputHeight; ++y) {
+        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
+        			found = true;
+        			break;
+        		}
+        	}
+        	if (found) {
+        		rightX = x;
+        		break;
+        	}
+        }
+
+        int lowY = 0;
+        for (int y = 0; y < inputHeight; ++y) {
+        	boolean found = false;
+        	for (int x = 0; x < inputWidth; ++x) {
+        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
+        			found = true;
+        			break;
+        		}
+        	}
+        	if (found) {
+        		lowY = y;
+        		break;
+        	}
+        }
+
+        int highY = inputHeight - 1;
+        for (int y = inputHeight - 1; y >= 0; --y) {
+        	boolean found = false;
+        	for (int x = 0; x < inputWidth; ++x) {
+        		if (isNotWhite(inputRed[x][y], inputGreen[x][y], inputBlue[x][y])) {
+        			found = true;
+        			break;
+        		}
+        	}
+        	if (found) {
+        		highY = y;
+        		break;
+        	}
+        }
+
+        int cropWidth = rightX - leftX + 1;
+        int cropHeight = highY - lowY + 1;
+
+        int cropRed[][] = new int [cropWidth][cropHeight];
+        int cropGreen[][] = new int [cropWidth][cropHeight];
+        int cropBlue[][] = new int [cropWidth][cropHeight];
+
+        for (int x = 0; x < cropWidth; ++x) {
+        	for (int y = 0; y < cropHeight; ++y) {
+        		cropRed[x][y] = inputRed[x + leftX][y + lowY];
+        		cropGreen[x][y] = inputGreen[x + leftX][y + lowY];
+        		cropBlue[x][y] = inputBlue[x + leftX][y + lowY];
+        	}
+        }
+
+		ObjectImage img = new ObjectImage();
+		
+		img.width = size;
+		img.height = size;
+
+		img.red = new int [img.width][img.height];
+		img.green = new int [img.width][img.height];
+		img.blue = new int [img.width][img.height];
+
+		Normalization.Standardize(cropRed, img.red, cropWidth, cropHeight, img.width, img.height);
+		Normalization.Standardize(cropGreen, img.green, cropWidth, cropHeight, img.width, img.height);
+		Normalization.Standardize(cropBlue, img.blue, cropWidth, cropHeight, img.width, img.height);
+
+		return img;
+	}
+
+	// +--------------------------------------------+
+	// | Convert red, green and blue into RGB value |
+	// +--------------------------------------------+
+
+	private int RGB(int red, int green, int blue){
+        return (0xff000000) | (red << 16) | (green << 8) | blue;
+    }
+
+    // +-----------------------+
+    // | Write image into file |
+    // +-----------------------+
+
+	private void writeImage(ObjectImage img, String imageName) {
+		BufferedImage outputImage = new BufferedImage(img.width, img.height, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < img.width; ++i) {
+            for (int j = 0; j < img.height; ++j) {
+                outputImage.setRGB(i, j, RGB(img.red[i][j], img.green[i][j], img.blue[i][j]));
+            }
+        }
+        
+        try {
+            ImageIO.write(outputImage, "jpg", new File(imageName));
+        } catch (IOException exc) {
+            System.err.println(exc.toString());
+        }
+	}
+
+}
\ No newline at end of file